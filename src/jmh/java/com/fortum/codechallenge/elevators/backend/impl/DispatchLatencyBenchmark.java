@@ -0,0 +1,72 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the calls dispatched to the largest building, reported as percentiles.
+ * <p>
+ * Ten thousand elevators serve five hundred floors, a tenth of them nearly full, while hall calls and destination
+ * calls keep coming and the elevators move on in virtual time. The 99th percentile of both calls should stay under
+ * one millisecond
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchLatencyBenchmark {
+
+    private static final int NUMBER_OF_ELEVATORS = 10_000;
+
+    private static final int NUMBER_OF_FLOORS = 500;
+
+    private static final int CALLS_PER_TICK = 200;
+
+    private VirtualTimeScheduler scheduler;
+
+    private ElevatorControllerImpl elevatorController;
+
+    private Random random;
+
+    private int call;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(3);
+        scheduler = new VirtualTimeScheduler();
+        elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(NUMBER_OF_ELEVATORS, NUMBER_OF_FLOORS);
+        for (int i = 0; i < NUMBER_OF_ELEVATORS; i++) {
+            elevatorController.chooseDestinationFloorWhenInside(i, random.nextInt(NUMBER_OF_FLOORS));
+            if (i % 10 == 0) elevatorController.updateLoad(i, ElevatorImpl.DEFAULT_CAPACITY - 2, 0);
+        }
+        scheduler.advance(1_000);
+    }
+
+    @Benchmark
+    public int requestElevator() {
+        tick();
+        return elevatorController.requestElevator(random.nextInt(NUMBER_OF_FLOORS),
+                random.nextBoolean() ? Direction.UP : Direction.DOWN);
+    }
+
+    @Benchmark
+    public int requestElevatorToDestination() {
+        tick();
+        int floor = random.nextInt(NUMBER_OF_FLOORS);
+        return elevatorController.requestElevatorToDestination(floor,
+                (floor + 1 + random.nextInt(NUMBER_OF_FLOORS - 1)) % NUMBER_OF_FLOORS);
+    }
+
+    /**
+     * Lets the elevators serve the calls, otherwise repeated calls would only find the elevators already on the way
+     */
+    private void tick() {
+        if (++call % CALLS_PER_TICK == 0) scheduler.advance(SimulationScheduler.DEFAULT_TICK_MILLIS);
+    }
+}
@@ -0,0 +1,66 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the state transitions of a single {@link ElevatorImpl}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorBenchmark {
+
+    private static final int CALLS = 1024;
+
+    @Param({"20", "200", "2000"})
+    private int numberOfFloors;
+
+    private ElevatorImpl elevator;
+
+    private final int[] floors = new int[CALLS];
+
+    private final Direction[] directions = new Direction[CALLS];
+
+    private int call;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < CALLS; i++) {
+            floors[i] = random.nextInt(numberOfFloors);
+            directions[i] = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        }
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        elevator = new ElevatorImpl(0, 0, numberOfFloors, scheduler);
+        elevator.startElevator(numberOfFloors - 1);
+        scheduler.advance(ElevatorImpl.FLOOR_TRAVEL_MILLIS * numberOfFloors / 2);
+    }
+
+    @Benchmark
+    public void planStop() {
+        int i = nextCall();
+        elevator.planStop(floors[i], directions[i]);
+    }
+
+    @Benchmark
+    public boolean shouldChangeAddressedFloor() {
+        return elevator.shouldChangeAddressedFloor(floors[nextCall()]);
+    }
+
+    @Benchmark
+    public boolean isAhead() {
+        return elevator.isAhead(floors[nextCall()]);
+    }
+
+    private int nextCall() {
+        call = (call + 1) & (CALLS - 1);
+        return call;
+    }
+}
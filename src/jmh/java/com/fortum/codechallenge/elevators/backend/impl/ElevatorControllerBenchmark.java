@@ -0,0 +1,86 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the dispatching and snapshot calls of {@link ElevatorControllerImpl}.
+ * <p>
+ * Elevators are advanced in virtual time, so they stay in the state prepared by the setup during measurement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorControllerBenchmark {
+
+    private static final int CALLS = 1024;
+
+    @Param({"4", "64", "1024", "10000"})
+    private int numberOfElevators;
+
+    @Param({"20", "200", "500"})
+    private int numberOfFloors;
+
+    @Param({DispatchStrategy.HEURISTIC, DispatchStrategy.ETA})
+    private String dispatchStrategy;
+
+    private ElevatorControllerImpl elevatorController;
+
+    private final int[] floors = new int[CALLS];
+
+    private final Direction[] directions = new Direction[CALLS];
+
+    private int call;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < CALLS; i++) {
+            floors[i] = random.nextInt(numberOfFloors);
+            directions[i] = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+        }
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        elevatorController = new ElevatorControllerImpl(scheduler, DispatchStrategy.named(dispatchStrategy));
+        elevatorController.installElevators(numberOfElevators, numberOfFloors);
+        for (int i = 0; i < numberOfElevators; i++) {
+            elevatorController.chooseDestinationFloorWhenInside(i, floors[i % CALLS]);
+        }
+        scheduler.advance(ElevatorImpl.FLOOR_TRAVEL_MILLIS * numberOfFloors / 4);
+    }
+
+    @Benchmark
+    public int requestElevator() {
+        int i = nextCall();
+        return elevatorController.requestElevator(floors[i], directions[i]);
+    }
+
+    @Benchmark
+    public Elevator findBestElevator() {
+        int i = nextCall();
+        return elevatorController.findBestElevator(floors[i], directions[i]);
+    }
+
+    @Benchmark
+    public List<Integer> getElevatorsPositions() {
+        return elevatorController.getElevatorsPositions();
+    }
+
+    @Benchmark
+    public List<Status> getElevatorStatuses() {
+        return elevatorController.getElevatorStatuses();
+    }
+
+    private int nextCall() {
+        call = (call + 1) & (CALLS - 1);
+        return call;
+    }
+}
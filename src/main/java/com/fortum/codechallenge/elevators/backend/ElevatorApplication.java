@@ -1,7 +1,9 @@
 package com.fortum.codechallenge.elevators.backend;
 
-import com.google.common.eventbus.AsyncEventBus;
-import com.google.common.eventbus.EventBus;
+import com.fortum.codechallenge.elevators.backend.config.VirtualThreadsConfig;
+import com.fortum.codechallenge.elevators.backend.impl.DispatchStrategy;
+import com.fortum.codechallenge.elevators.backend.impl.SimulationScheduler;
+import com.fortum.codechallenge.elevators.backend.impl.VirtualThreads;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -9,8 +11,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
 
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Preconfigured Spring Application boot class.
@@ -19,8 +22,14 @@ import java.util.concurrent.Executors;
 @PropertySources({@PropertySource("classpath:application.properties")})
 public class ElevatorApplication {
 
-    @Value("${com.fortum.codechallenge.numberOfElevators}")
-    private int numberOfElevators;
+    @Value("${com.fortum.codechallenge.simulation.tickMillis}")
+    private long tickMillis;
+
+    @Value("${com.fortum.codechallenge.dispatch.strategy:" + DispatchStrategy.HEURISTIC + "}")
+    private String dispatchStrategy;
+
+    @Value("${" + VirtualThreadsConfig.ENABLED_PROPERTY + ":false}")
+    private boolean virtualThreads;
 
     /**
      * Start method that will be invoked when starting the Spring context.
@@ -33,22 +42,39 @@ public class ElevatorApplication {
 
     /**
      * Create a default thread pool for your convenience.
+     * <p>
+     * The pool is sized to the number of available cores, so it does not grow with the number of elevators. Its
+     * threads are virtual ones if they are enabled by the property, so a task blocked e.g. on the websocket does
+     * not hold a platform thread
      *
-     * @return Executor thread pool
+     * @return ScheduledExecutorService thread pool
      */
     @Bean(destroyMethod = "shutdown")
-    public Executor taskExecutor() {
-        return Executors.newScheduledThreadPool(numberOfElevators);
+    public ScheduledExecutorService taskExecutor() {
+        ThreadFactory threadFactory = virtualThreads
+                ? VirtualThreads.factory("task-virtual-") : Executors.defaultThreadFactory();
+        return Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+    }
+
+    /**
+     * Create the scheduler advancing all elevators on a fixed tick.
+     *
+     * @param taskExecutor thread pool the ticks are scheduled on
+     * @return SimulationScheduler for elevators movement
+     */
+    @Bean
+    public SimulationScheduler simulationScheduler(ScheduledExecutorService taskExecutor) {
+        return new SimulationScheduler(taskExecutor, tickMillis);
     }
 
     /**
-     * Create an event bus for your convenience.
+     * Create the strategy choosing the elevator which serves a call.
      *
-     * @return EventBus for async task execution
+     * @return DispatchStrategy configured by its name, {@link DispatchStrategy#HEURISTIC} by default
      */
     @Bean
-    public EventBus eventBus() {
-        return new AsyncEventBus(Executors.newCachedThreadPool());
+    public DispatchStrategy dispatchStrategy() {
+        return DispatchStrategy.named(dispatchStrategy);
     }
 
 }
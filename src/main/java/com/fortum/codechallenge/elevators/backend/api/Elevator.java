@@ -79,5 +79,52 @@ public interface Elevator {
      */
     boolean shouldChangeAddressedFloor(int floorNumber);
 
+    /**
+     * Atomically directs the elevator towards the floor: starts the waiting elevator, changes the addressed floor
+     * of the elevator which can reach it on its way or plans a stop otherwise
+     *
+     * @param toFloor   number of the floor the elevator should go to
+     * @param direction direction in which the elevator should be going when it reaches the floor
+     */
+    void address(int toFloor, Direction direction);
+
+    /**
+     * Used to get consistent state of the elevator without blocking it
+     *
+     * @return ElevatorSnapshot immutable state of the elevator at the moment of the call
+     */
+    ElevatorSnapshot getSnapshot();
+
+    /**
+     * Tells whether the elevator stops on the given floor, elevators of a zone pass by the floors outside of it.
+     *
+     * @param floor number of the floor
+     * @return true if passengers can get in and out of the elevator on the floor
+     */
+    boolean servesFloor(int floor);
+
+    /**
+     * Reports how many passengers are inside the elevator right now.
+     *
+     * @return int number of passengers
+     */
+    int getLoad();
+
+    /**
+     * Reports how many passengers the elevator can take.
+     *
+     * @return int maximum number of passengers
+     */
+    int getCapacity();
+
+    /**
+     * Used to record passengers who left and entered the elevator at a stop. Load of the elevator never drops below
+     * zero, it may exceed the capacity if more passengers squeezed in than allowed
+     *
+     * @param boarded number of passengers who entered the elevator
+     * @param alighted number of passengers who left the elevator
+     * @return int number of passengers inside the elevator after the stop
+     */
+    int updateLoad(int boarded, int alighted);
 
 }
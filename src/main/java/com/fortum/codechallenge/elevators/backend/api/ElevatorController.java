@@ -8,6 +8,17 @@ import java.util.List;
  */
 public interface ElevatorController {
 
+    /**
+     * The most elevators which can be installed in one building, dispatch was verified to stay well under a
+     * millisecond with this many of them
+     */
+    int MAX_ELEVATORS = 10_000;
+
+    /**
+     * The most floors one building can have
+     */
+    int MAX_FLOORS = 1_000;
+
     /**
      * Request an elevator to the specified floor.
      *
@@ -17,6 +28,25 @@ public interface ElevatorController {
      */
     int requestElevator(int toFloor, Direction direction);
 
+    /**
+     * Request an elevator from the floor to the destination floor, used when the destination is chosen before
+     * boarding, e.g. on a destination keypad in the lobby.
+     *
+     * @param fromFloor floor from which the elevator is requested
+     * @param toFloor   destination floor of the passenger
+     * @return Id of the Elevator the passenger should board, '-1' if the floors are not valid.
+     */
+    int requestElevatorToDestination(int fromFloor, int toFloor);
+
+    /**
+     * Request elevators for many calls at once.
+     *
+     * @param calls calls made by passengers waiting on the floors
+     * @return ids of the elevators going to the floors, in the order of the calls - '-1' for the calls which could
+     * not be served, '-1' for all calls if any of them is not valid
+     */
+    List<Integer> requestElevators(List<HallCall> calls);
+
     /**
      * A snapshot list of all elevators in the system.
      *
@@ -33,6 +63,17 @@ public interface ElevatorController {
     boolean chooseDestinationFloorWhenInside(int elevatorNumber, int toFloor);
 
 
+    /**
+     * Method used to record passengers who left and entered the elevator at a stop, e.g. as measured by its load
+     * sensor
+     *
+     * @param elevatorId id of the elevator which stopped
+     * @param boarded    number of passengers who entered the elevator
+     * @param alighted   number of passengers who left the elevator
+     * @return number of passengers inside the elevator after the stop, '-1' if there is no elevator for the id
+     */
+    int updateLoad(int elevatorId, int boarded, int alighted);
+
     /**
      * Method used to install elevators in the building
      *
@@ -41,6 +82,16 @@ public interface ElevatorController {
      */
     void installElevators(int numberOfElevators, int numberOfFloors);
 
+    /**
+     * Method used to install elevators serving zones of the building, calls are dispatched only to the elevators of
+     * the zones serving the floors of the call
+     *
+     * @param numberOfFloors number of floors in the building
+     * @param zones zones of the building with the number of elevators serving each of them
+     * @return boolean indicating whether all zones were valid and the elevators were installed
+     */
+    boolean installZones(int numberOfFloors, List<ElevatorZone> zones);
+
     /**
      * A snapshot list of all elevators' positions in the system.
      * @return list of Integers - indicating numbers of floors currently occupied by the elevators
@@ -61,4 +112,11 @@ public interface ElevatorController {
      * @return primitive type int - number of floors in the building
      */
     int getNumberOfFloors();
+
+    /**
+     * Used to register listener notified about state changes of all elevators, including the ones installed later
+     *
+     * @param listener listener which should be notified
+     */
+    void addListener(ElevatorListener listener);
 }
@@ -0,0 +1,201 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Something which happened to one elevator, published to the subscribers of the elevator events.
+ * <p>
+ * Events are immutable, every type of the event is a nested subclass of this one
+ */
+public abstract class ElevatorEvent {
+
+    private final int elevatorId;
+
+    private final long timeMillis;
+
+    private ElevatorEvent(int elevatorId, long timeMillis) {
+        this.elevatorId = elevatorId;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * @return id of the elevator the event happened to
+     */
+    public int getElevatorId() {
+        return elevatorId;
+    }
+
+    /**
+     * @return time in milliseconds of the simulation clock at which the event happened
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * The elevator was chosen to serve a call made on the floor
+     */
+    public static final class CallAssigned extends ElevatorEvent {
+
+        private final int floor;
+
+        private final Direction direction;
+
+        /**
+         * Class constructor
+         *
+         * @param elevatorId id of the elevator chosen to serve the call
+         * @param timeMillis time in milliseconds at which the elevator was chosen
+         * @param floor      number of the floor the call was made from
+         * @param direction  direction chosen in the call
+         */
+        public CallAssigned(int elevatorId, long timeMillis, int floor, Direction direction) {
+            super(elevatorId, timeMillis);
+            this.floor = floor;
+            this.direction = direction;
+        }
+
+        public int getFloor() {
+            return floor;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        @Override
+        public String toString() {
+            return "CallAssigned{elevator=" + getElevatorId() + ", floor=" + floor + ", direction=" + direction + '}';
+        }
+    }
+
+    /**
+     * The elevator has reached the floor, whether it stops there or not
+     */
+    public static final class FloorReached extends ElevatorEvent {
+
+        private final int floor;
+
+        /**
+         * Class constructor
+         *
+         * @param elevatorId id of the elevator
+         * @param timeMillis time in milliseconds at which the floor was reached
+         * @param floor      number of the reached floor
+         */
+        public FloorReached(int elevatorId, long timeMillis, int floor) {
+            super(elevatorId, timeMillis);
+            this.floor = floor;
+        }
+
+        public int getFloor() {
+            return floor;
+        }
+
+        @Override
+        public String toString() {
+            return "FloorReached{elevator=" + getElevatorId() + ", floor=" + floor + '}';
+        }
+    }
+
+    /**
+     * The elevator has stopped on the floor and the passengers can get in and out
+     */
+    public static final class DoorsOpened extends ElevatorEvent {
+
+        private final int floor;
+
+        /**
+         * Class constructor
+         *
+         * @param elevatorId id of the elevator
+         * @param timeMillis time in milliseconds at which the doors were opened
+         * @param floor      number of the floor the elevator stopped on
+         */
+        public DoorsOpened(int elevatorId, long timeMillis, int floor) {
+            super(elevatorId, timeMillis);
+            this.floor = floor;
+        }
+
+        public int getFloor() {
+            return floor;
+        }
+
+        @Override
+        public String toString() {
+            return "DoorsOpened{elevator=" + getElevatorId() + ", floor=" + floor + '}';
+        }
+    }
+
+    /**
+     * The elevator has changed the direction it is moving in
+     */
+    public static final class DirectionChanged extends ElevatorEvent {
+
+        private final Direction previous;
+
+        private final Direction current;
+
+        /**
+         * Class constructor
+         *
+         * @param elevatorId id of the elevator
+         * @param timeMillis time in milliseconds at which the direction changed
+         * @param previous   direction before the change
+         * @param current    direction after the change
+         */
+        public DirectionChanged(int elevatorId, long timeMillis, Direction previous, Direction current) {
+            super(elevatorId, timeMillis);
+            this.previous = previous;
+            this.current = current;
+        }
+
+        public Direction getPrevious() {
+            return previous;
+        }
+
+        public Direction getCurrent() {
+            return current;
+        }
+
+        @Override
+        public String toString() {
+            return "DirectionChanged{elevator=" + getElevatorId() + ", " + previous + " -> " + current + '}';
+        }
+    }
+
+    /**
+     * The elevator has started running or has started waiting
+     */
+    public static final class StatusChanged extends ElevatorEvent {
+
+        private final Status previous;
+
+        private final Status current;
+
+        /**
+         * Class constructor
+         *
+         * @param elevatorId id of the elevator
+         * @param timeMillis time in milliseconds at which the status changed
+         * @param previous   status before the change
+         * @param current    status after the change
+         */
+        public StatusChanged(int elevatorId, long timeMillis, Status previous, Status current) {
+            super(elevatorId, timeMillis);
+            this.previous = previous;
+            this.current = current;
+        }
+
+        public Status getPrevious() {
+            return previous;
+        }
+
+        public Status getCurrent() {
+            return current;
+        }
+
+        @Override
+        public String toString() {
+            return "StatusChanged{elevator=" + getElevatorId() + ", " + previous + " -> " + current + '}';
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+import java.util.List;
+
+/**
+ * Subscriber receiving the {@link ElevatorEvent}s in batches
+ */
+@FunctionalInterface
+public interface ElevatorEventSubscriber {
+
+    /**
+     * Called with the events published since the previous batch, in the order they were published. Batches are
+     * delivered one at a time, never concurrently
+     *
+     * @param events events of the batch, the list is not modifiable
+     */
+    void eventsPublished(List<ElevatorEvent> events);
+
+    /**
+     * Called before the next batch when events were dropped since the previous one, e.g. because the subscribers
+     * did not keep up. A subscriber which keeps state built from the events should read it again from the elevators,
+     * the next batches continue from the current state
+     *
+     * @param droppedEvents number of the events dropped since the previous batch
+     */
+    default void eventsDropped(long droppedEvents) {
+    }
+}
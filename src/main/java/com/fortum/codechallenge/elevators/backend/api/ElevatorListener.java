@@ -0,0 +1,24 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Listener notified about every change of the state of an {@link Elevator}
+ */
+@FunctionalInterface
+public interface ElevatorListener {
+
+    /**
+     * Listener ignoring all changes
+     */
+    ElevatorListener NONE = (elevator, previous, current) -> {
+    };
+
+    /**
+     * Called after the state of the elevator has changed, on the thread which changed it. Notifications of
+     * changes made concurrently by different threads may come in different order than the changes were made
+     *
+     * @param elevator elevator which state has changed
+     * @param previous state before the change
+     * @param current  state after the change
+     */
+    void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current);
+}
@@ -0,0 +1,50 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+import java.util.Map;
+
+/**
+ * Times measured in one building - how long passengers waited for the elevators and rode in them, and how long
+ * the controller took to choose the elevator for a call
+ */
+public final class ElevatorMetricsReport {
+
+    private final LatencySummary waitTimeMillis;
+
+    private final LatencySummary rideTimeMillis;
+
+    private final LatencySummary dispatchLatencyNanos;
+
+    private final Map<Integer, ElevatorMetricsReport> elevators;
+
+    /**
+     * Class constructor
+     *
+     * @param waitTimeMillis       times from the call on the floor until the chosen elevator stopped there
+     * @param rideTimeMillis       times from choosing the floor inside the elevator until it stopped there
+     * @param dispatchLatencyNanos times the controller spent choosing the elevator for the call, null per elevator
+     * @param elevators            times measured per elevator id, null per elevator
+     */
+    public ElevatorMetricsReport(LatencySummary waitTimeMillis, LatencySummary rideTimeMillis,
+                                 LatencySummary dispatchLatencyNanos, Map<Integer, ElevatorMetricsReport> elevators) {
+        this.waitTimeMillis = waitTimeMillis;
+        this.rideTimeMillis = rideTimeMillis;
+        this.dispatchLatencyNanos = dispatchLatencyNanos;
+        this.elevators = elevators;
+    }
+
+    public LatencySummary getWaitTimeMillis() {
+        return waitTimeMillis;
+    }
+
+    public LatencySummary getRideTimeMillis() {
+        return rideTimeMillis;
+    }
+
+    public LatencySummary getDispatchLatencyNanos() {
+        return dispatchLatencyNanos;
+    }
+
+    public Map<Integer, ElevatorMetricsReport> getElevators() {
+        return elevators;
+    }
+}
@@ -0,0 +1,61 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Immutable view of the state of an {@link Elevator} taken at one moment.
+ * <p>
+ * All values of the snapshot are consistent with each other, even if the elevator keeps moving
+ */
+public interface ElevatorSnapshot {
+
+    /**
+     * Version of the state, it grows with every change of the elevator state, so the later of two snapshots of the
+     * same elevator has the higher version
+     *
+     * @return long version of the state
+     */
+    long getVersion();
+
+    /**
+     * Tells which status the elevator had
+     *
+     * @return Status Enumeration value describing the elevator status.
+     */
+    Status getStatus();
+
+    /**
+     * Reports which floor the elevator was at
+     *
+     * @return int number of the floor
+     */
+    int currentFloor();
+
+    /**
+     * Target floor of the moving elevator
+     *
+     * @return primitive integer number of floor
+     */
+    int getAddressedFloor();
+
+    /**
+     * Direction in which the elevator was moving
+     *
+     * @return Direction Enumeration value describing the direction.
+     */
+    Direction getCurrentDirection();
+
+    /**
+     * Used to check if moving elevator is ahead chosen floor or if it was already passed by
+     *
+     * @param floorNumber number of floor
+     * @return true if elevator is ahead
+     */
+    boolean isAhead(int floorNumber);
+
+    /**
+     * Used to check whether addressed floor should be changed
+     *
+     * @param floorNumber number of new addressed floor proposition
+     * @return true if addressed floor should be changed
+     */
+    boolean shouldChangeAddressedFloor(int floorNumber);
+}
@@ -0,0 +1,80 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Publicly visible state of one elevator, sent to the clients whenever it changes
+ */
+public final class ElevatorUpdate {
+
+    private final int id;
+
+    private final int floor;
+
+    private final Direction direction;
+
+    private final Status status;
+
+    private final int addressedFloor;
+
+    /**
+     * Class constructor
+     *
+     * @param id             id of the elevator
+     * @param floor          number of the floor the elevator is at
+     * @param direction      direction in which the elevator is moving
+     * @param status         status of the elevator
+     * @param addressedFloor number of the floor the elevator is heading towards
+     */
+    public ElevatorUpdate(int id, int floor, Direction direction, Status status, int addressedFloor) {
+        this.id = id;
+        this.floor = floor;
+        this.direction = direction;
+        this.status = status;
+        this.addressedFloor = addressedFloor;
+    }
+
+    /**
+     * Used to create update out of the state of the elevator
+     *
+     * @param elevator elevator the state belongs to
+     * @param snapshot state of the elevator
+     * @return ElevatorUpdate describing the state
+     */
+    public static ElevatorUpdate of(Elevator elevator, ElevatorSnapshot snapshot) {
+        return new ElevatorUpdate(elevator.getId(), snapshot.currentFloor(), snapshot.getCurrentDirection(),
+                snapshot.getStatus(), snapshot.getAddressedFloor());
+    }
+
+    /**
+     * Used to check whether the change of the elevator state is visible to the clients
+     *
+     * @param previous state before the change
+     * @param current  state after the change
+     * @return true if the floor, direction, status or addressed floor has changed
+     */
+    public static boolean isVisibleChange(ElevatorSnapshot previous, ElevatorSnapshot current) {
+        return previous.currentFloor() != current.currentFloor()
+                || previous.getCurrentDirection() != current.getCurrentDirection()
+                || previous.getStatus() != current.getStatus()
+                || previous.getAddressedFloor() != current.getAddressedFloor();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getAddressedFloor() {
+        return addressedFloor;
+    }
+}
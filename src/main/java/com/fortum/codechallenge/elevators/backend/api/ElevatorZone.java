@@ -0,0 +1,98 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Group of elevators serving the same range of floors, e.g. the low-rise, mid-rise and high-rise zones of a tall
+ * building. Elevators of the zone may also serve the lobby on the ground floor, going express from there to the
+ * first floor of their range
+ */
+public class ElevatorZone {
+
+    private int numberOfElevators;
+
+    private int lowestFloor;
+
+    private int highestFloor;
+
+    private boolean servesLobby;
+
+    /**
+     * Class constructor used when the zone is deserialized
+     */
+    public ElevatorZone() {
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param numberOfElevators number of elevators serving the zone
+     * @param lowestFloor       number of the lowest floor of the zone
+     * @param highestFloor      number of the highest floor of the zone
+     * @param servesLobby       true if the elevators also serve the ground floor
+     */
+    public ElevatorZone(int numberOfElevators, int lowestFloor, int highestFloor, boolean servesLobby) {
+        this.numberOfElevators = numberOfElevators;
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.servesLobby = servesLobby;
+    }
+
+    /**
+     * Used to create zone of the elevators which serve every floor of the building
+     *
+     * @param numberOfElevators number of elevators serving the building
+     * @param numberOfFloors    number of floors in the building
+     * @return ElevatorZone of the whole building
+     */
+    public static ElevatorZone wholeBuilding(int numberOfElevators, int numberOfFloors) {
+        return new ElevatorZone(numberOfElevators, 0, numberOfFloors - 1, true);
+    }
+
+    /**
+     * @param floor number of the floor
+     * @return true if the elevators of the zone stop on the floor
+     */
+    public boolean serves(int floor) {
+        return (servesLobby && floor == 0) || (floor >= lowestFloor && floor <= highestFloor);
+    }
+
+    /**
+     * @param numberOfFloors number of floors in the building
+     * @return true if the zone has at least one elevator and all of its floors are in the building
+     */
+    public boolean isValid(int numberOfFloors) {
+        return numberOfElevators >= 1 && lowestFloor >= 0 && lowestFloor <= highestFloor
+                && highestFloor < numberOfFloors;
+    }
+
+    public int getNumberOfElevators() {
+        return numberOfElevators;
+    }
+
+    public void setNumberOfElevators(int numberOfElevators) {
+        this.numberOfElevators = numberOfElevators;
+    }
+
+    public int getLowestFloor() {
+        return lowestFloor;
+    }
+
+    public void setLowestFloor(int lowestFloor) {
+        this.lowestFloor = lowestFloor;
+    }
+
+    public int getHighestFloor() {
+        return highestFloor;
+    }
+
+    public void setHighestFloor(int highestFloor) {
+        this.highestFloor = highestFloor;
+    }
+
+    public boolean isServesLobby() {
+        return servesLobby;
+    }
+
+    public void setServesLobby(boolean servesLobby) {
+        this.servesLobby = servesLobby;
+    }
+}
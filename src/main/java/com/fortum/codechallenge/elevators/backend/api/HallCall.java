@@ -0,0 +1,44 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Call of the elevator made by a passenger waiting on the floor
+ */
+public class HallCall {
+
+    private int floor;
+
+    private CallingDirection direction;
+
+    /**
+     * Class constructor used when the call is deserialized
+     */
+    public HallCall() {
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param floor     number of the floor from which the elevator was called
+     * @param direction direction chosen by the caller
+     */
+    public HallCall(int floor, CallingDirection direction) {
+        this.floor = floor;
+        this.direction = direction;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public void setFloor(int floor) {
+        this.floor = floor;
+    }
+
+    public CallingDirection getDirection() {
+        return direction;
+    }
+
+    public void setDirection(CallingDirection direction) {
+        this.direction = direction;
+    }
+}
@@ -0,0 +1,82 @@
+package com.fortum.codechallenge.elevators.backend.api;
+
+/**
+ * Summary of the distribution of measured times, all values are given in the same unit
+ */
+public final class LatencySummary {
+
+    private final long count;
+
+    private final double mean;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+
+    private final long p999;
+
+    private final long max;
+
+    /**
+     * Class constructor
+     *
+     * @param count number of measured times
+     * @param mean  mean of the times
+     * @param p50   median of the times
+     * @param p90   90th percentile of the times
+     * @param p99   99th percentile of the times
+     * @param p999  99.9th percentile of the times
+     * @param max   the longest time
+     */
+    public LatencySummary(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    /**
+     * Used to summarize the times of which only the totals are tracked
+     *
+     * @param count number of measured times
+     * @param total sum of the times
+     * @param max   the longest time
+     * @return summary with the percentiles set to '-1'
+     */
+    public static LatencySummary ofTotals(long count, long total, long max) {
+        return new LatencySummary(count, count == 0 ? 0 : (double) total / count, -1, -1, -1, -1, max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
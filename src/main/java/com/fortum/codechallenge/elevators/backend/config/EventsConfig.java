@@ -0,0 +1,30 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorEventPipeline;
+import com.fortum.codechallenge.elevators.backend.impl.SimulationClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Events of the elevators of the default building, delivered in batches on a single thread through a bounded queue.
+ * Buildings installed through the {@link com.fortum.codechallenge.elevators.backend.impl.BuildingRegistry} do not
+ * publish events
+ */
+@Configuration
+public class EventsConfig {
+
+    @Value("${com.fortum.codechallenge.events.capacity:4096}")
+    private int capacity;
+
+    @Value("${com.fortum.codechallenge.events.batchSize:256}")
+    private int batchSize;
+
+    @Bean(destroyMethod = "close")
+    public ElevatorEventPipeline elevatorEvents(ElevatorControllerImpl elevatorController) {
+        ElevatorEventPipeline events = new ElevatorEventPipeline(SimulationClock.SYSTEM, capacity, batchSize);
+        elevatorController.attachEvents(events);
+        return events;
+    }
+}
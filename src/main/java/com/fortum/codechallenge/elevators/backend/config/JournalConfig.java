@@ -0,0 +1,60 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaling of the elevators' state, enabled when the journal directory is configured. Elevators recorded before
+ * restart are recovered on startup
+ */
+@Configuration
+@ConditionalOnProperty("com.fortum.codechallenge.journal.directory")
+public class JournalConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JournalConfig.class);
+
+    @Value("${com.fortum.codechallenge.journal.directory}")
+    private String directory;
+
+    @Value("${com.fortum.codechallenge.journal.flushMillis:100}")
+    private long flushMillis;
+
+    @Value("${com.fortum.codechallenge.journal.snapshotMillis:60000}")
+    private long snapshotMillis;
+
+    @Bean(destroyMethod = "close")
+    public ElevatorJournal elevatorJournal(ElevatorControllerImpl elevatorController,
+                                           ScheduledExecutorService taskExecutor) throws IOException {
+        ElevatorJournal journal = new ElevatorJournal(Paths.get(directory));
+        elevatorController.attachJournal(journal);
+        journal.recover(elevatorController);
+        journal.snapshot(elevatorController);
+
+        taskExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                LOGGER.error("Flush of the elevator journal failed", e);
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        taskExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                journal.snapshot(elevatorController);
+            } catch (IOException e) {
+                LOGGER.error("Snapshot of the elevators failed", e);
+            }
+        }, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        return journal;
+    }
+}
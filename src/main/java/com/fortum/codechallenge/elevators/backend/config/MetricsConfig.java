@@ -0,0 +1,21 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorMetrics;
+import com.fortum.codechallenge.elevators.backend.impl.SimulationClock;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of the default building
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ElevatorMetrics elevatorMetrics(ElevatorControllerImpl elevatorController) {
+        ElevatorMetrics metrics = new ElevatorMetrics(SimulationClock.SYSTEM);
+        elevatorController.attachMetrics(metrics);
+        return metrics;
+    }
+}
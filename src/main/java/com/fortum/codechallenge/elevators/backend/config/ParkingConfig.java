@@ -0,0 +1,36 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.IdleParking;
+import com.fortum.codechallenge.elevators.backend.impl.SimulationClock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parking of the idle elevators of the default building on the floors where the next calls are expected, enabled
+ * by the property
+ */
+@Configuration
+@ConditionalOnProperty(name = "com.fortum.codechallenge.parking.enabled", havingValue = "true")
+public class ParkingConfig {
+
+    @Value("${com.fortum.codechallenge.parking.idleMillis:30000}")
+    private long idleMillis;
+
+    @Value("${com.fortum.codechallenge.parking.intervalMillis:5000}")
+    private long intervalMillis;
+
+    @Bean
+    public IdleParking idleParking(ElevatorControllerImpl elevatorController, ScheduledExecutorService taskExecutor) {
+        IdleParking parking = new IdleParking(SimulationClock.SYSTEM, idleMillis);
+        elevatorController.attachParking(parking);
+        taskExecutor.scheduleWithFixedDelay(elevatorController::parkIdleElevators, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        return parking;
+    }
+}
@@ -0,0 +1,57 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.api.LatencySummary;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorMetrics;
+import org.HdrHistogram.AtomicHistogram;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures latency of the REST handlers in microseconds, one histogram per handler mapping pattern. Requests which
+ * were not mapped to any handler are not measured
+ */
+@Component
+public class RequestLatencyFilter extends OncePerRequestFilter {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentMap<String, AtomicHistogram> latencies = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null && !request.isAsyncStarted()) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                latencies.computeIfAbsent(pattern.toString(), key -> new AtomicHistogram(MAX_LATENCY_MICROS, 3))
+                        .recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            }
+        }
+    }
+
+    /**
+     * @return summaries of the latencies in microseconds by handler mapping pattern
+     */
+    public Map<String, LatencySummary> summaries() {
+        Map<String, LatencySummary> summaries = new TreeMap<>();
+        latencies.forEach((pattern, histogram) -> summaries.put(pattern, ElevatorMetrics.summarize(histogram)));
+        return Collections.unmodifiableMap(summaries);
+    }
+}
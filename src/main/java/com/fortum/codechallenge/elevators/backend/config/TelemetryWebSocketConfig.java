@@ -0,0 +1,23 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.resources.TelemetryWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class TelemetryWebSocketConfig implements WebSocketConfigurer {
+
+    private final TelemetryWebSocketHandler telemetryHandler;
+
+    public TelemetryWebSocketConfig(TelemetryWebSocketHandler telemetryHandler) {
+        this.telemetryHandler = telemetryHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(telemetryHandler, "/telemetry").setAllowedOrigins("*");
+    }
+}
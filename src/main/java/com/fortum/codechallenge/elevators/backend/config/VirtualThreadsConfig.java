@@ -0,0 +1,27 @@
+package com.fortum.codechallenge.elevators.backend.config;
+
+import com.fortum.codechallenge.elevators.backend.impl.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * REST handlers running on virtual threads instead of the pool of the Tomcat, enabled by the property together with
+ * the virtual threads of the {@link com.fortum.codechallenge.elevators.backend.ElevatorApplication#taskExecutor()}.
+ * Requires Java 21 or newer, the application fails to start on older runtimes
+ */
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadsConfig.ENABLED_PROPERTY, havingValue = "true")
+public class VirtualThreadsConfig {
+
+    /**
+     * Property which switches the application to the virtual threads
+     */
+    public static final String ENABLED_PROPERTY = "com.fortum.codechallenge.virtualThreads.enabled";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.perTaskExecutor("http-virtual-"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Registry of independent {@link ElevatorController} shards, one per building or elevator bank.
+ * <p>
+ * Each shard owns its elevators and its own single-threaded {@link SimulationScheduler}, so shards are advanced
+ * on different cores and traffic in one building never contends with another. Requests to a building run through
+ * {@link #inBuilding(String, Function)}, so a building is never removed while a request uses it.
+ * <p>
+ * Shards measure their times in {@link ElevatorMetrics}, but unlike the default building they have no journal, no
+ * event pipeline, no idle parking and their traffic is not recorded
+ */
+@Service
+public class BuildingRegistry {
+
+    /**
+     * Maximal number of buildings, every building has its own simulation thread
+     */
+    public static final int MAX_BUILDINGS = 64;
+
+    private final ConcurrentMap<String, Shard> shards = new ConcurrentHashMap<>();
+
+    private final long tickMillis;
+
+    private final DispatchStrategy dispatchStrategy;
+
+    /**
+     * Class constructor, calls are dispatched by the {@link HeuristicDispatchStrategy}
+     *
+     * @param tickMillis interval between two consecutive ticks of every shard in milliseconds
+     */
+    public BuildingRegistry(long tickMillis) {
+        this(tickMillis, new HeuristicDispatchStrategy());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param tickMillis       interval between two consecutive ticks of every shard in milliseconds
+     * @param dispatchStrategy strategy choosing the elevator which serves a call in every shard
+     */
+    @Autowired
+    public BuildingRegistry(@Value("${com.fortum.codechallenge.simulation.tickMillis}") long tickMillis,
+                            DispatchStrategy dispatchStrategy) {
+        this.tickMillis = tickMillis;
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    /**
+     * Used to install elevators in the building, the shard of the building is created if it does not exist yet and
+     * there are less than {@link #MAX_BUILDINGS} buildings
+     *
+     * @param buildingId        id of the building or elevator bank
+     * @param numberOfElevators number of elevators which should be installed
+     * @param numberOfFloors    number of floors in the building
+     * @return controller of the building, empty if the building is new and there are too many buildings, or it was
+     * removed during the installation
+     */
+    public Optional<ElevatorController> install(String buildingId, int numberOfElevators, int numberOfFloors) {
+        Shard shard = shards.get(buildingId);
+        if (shard == null) shard = create(buildingId);
+        if (shard == null) return Optional.empty();
+        return shard.use(elevatorController -> {
+            elevatorController.installElevators(numberOfElevators, numberOfFloors);
+            return elevatorController;
+        });
+    }
+
+    /**
+     * Used to serve a request in the building, the building is not removed until the request is served
+     *
+     * @param buildingId id of the building or elevator bank
+     * @param request    request served by the controller of the building
+     * @param <T>        type of the response
+     * @return response to the request, empty if the building does not exist
+     */
+    public <T> Optional<T> inBuilding(String buildingId, Function<ElevatorController, T> request) {
+        Shard shard = shards.get(buildingId);
+        return shard == null ? Optional.empty() : shard.use(request);
+    }
+
+    /**
+     * Used to get controller of the building, requests to the building should be made through
+     * {@link #inBuilding(String, Function)}, as the building may be removed in the meantime
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return controller of the building, empty if elevators were never installed in it
+     */
+    public Optional<ElevatorController> find(String buildingId) {
+        return Optional.ofNullable(shards.get(buildingId)).map(shard -> shard.elevatorController);
+    }
+
+    /**
+     * Used to get times measured in the building
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return metrics of the building, empty if elevators were never installed in it
+     */
+    public Optional<ElevatorMetrics> findMetrics(String buildingId) {
+        return Optional.ofNullable(shards.get(buildingId)).map(shard -> shard.metrics);
+    }
+
+    /**
+     * Used to remove the building and stop its elevators, once the requests being served in it are served
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return true if the building existed
+     */
+    public boolean remove(String buildingId) {
+        Shard shard = shards.remove(buildingId);
+        if (shard == null) return false;
+        shard.close();
+        return true;
+    }
+
+    /**
+     * @return ids of all buildings with installed elevators
+     */
+    public Set<String> getBuildingIds() {
+        return shards.keySet();
+    }
+
+    private synchronized Shard create(String buildingId) {
+        Shard shard = shards.get(buildingId);
+        if (shard != null || shards.size() >= MAX_BUILDINGS) return shard;
+        shard = new Shard(buildingId);
+        shards.put(buildingId, shard);
+        return shard;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shards.keySet().forEach(this::remove);
+    }
+
+    private final class Shard {
+
+        private final ScheduledExecutorService executor;
+
+        private final ElevatorControllerImpl elevatorController;
+
+        private final ElevatorMetrics metrics = new ElevatorMetrics(SimulationClock.SYSTEM);
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private boolean closed;
+
+        private Shard(String buildingId) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "elevator-simulation-" + buildingId);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.elevatorController = new ElevatorControllerImpl(new SimulationScheduler(executor, tickMillis),
+                    dispatchStrategy);
+            elevatorController.attachMetrics(metrics);
+        }
+
+        private <T> Optional<T> use(Function<ElevatorController, T> request) {
+            lock.readLock().lock();
+            try {
+                return closed ? Optional.empty() : Optional.ofNullable(request.apply(elevatorController));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                executor.shutdownNow();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
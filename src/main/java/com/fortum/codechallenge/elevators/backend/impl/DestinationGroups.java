@@ -0,0 +1,254 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Destination calls - made with the destination floor already known on the calling floor - which wait for their
+ * elevators, grouped by the calling floor and direction.
+ * <p>
+ * Passengers going to similar floors are put in the same group, and so in the same elevator, as long as the group
+ * fits in the elevator and its destinations stay within one sector - the floors of the building divided evenly between the
+ * elevators. Any other destination opens a new group, which should be served by another elevator. Destinations of the
+ * group are chosen once its elevator stops on the calling floor, so the elevator makes one stop per floor for all
+ * of them instead of collecting passengers of every sector. The group keeps riding with the elevator until its
+ * passengers get off, so the load of the elevator is updated on every stop they board or alight at.
+ * <p>
+ * Passengers are told which elevator to board, so a group is never moved to another one. An elevator which goes to
+ * wait while groups still wait for it on other floors - it passed their stops by - is sent to them again, and
+ * nobody joins a group whose elevator is not going to stop on its floor.
+ * <p>
+ * Groups are assigned, boarded and alighted under the lock of this object, elevators which have no group waiting for
+ * them or riding in them are passed by without locking
+ */
+final class DestinationGroups implements ElevatorListener {
+
+    private final int sectorFloors;
+
+    private final List<List<Group>> byCall;
+
+    private final Map<Integer, List<Group>> waitingByElevator = new HashMap<>();
+
+    private final Map<Integer, List<Group>> ridingByElevator = new HashMap<>();
+
+    private final AtomicIntegerArray groupsByElevator;
+
+    private final ObjIntConsumer<Elevator> destinationChosen;
+
+    /**
+     * Class constructor
+     *
+     * @param numberOfElevators number of the installed elevators
+     * @param numberOfFloors    number of floors in the building
+     * @param destinationChosen called with the elevator and destination of every passenger boarding it
+     */
+    DestinationGroups(int numberOfElevators, int numberOfFloors, ObjIntConsumer<Elevator> destinationChosen) {
+        int elevators = Math.max(1, numberOfElevators);
+        this.sectorFloors = Math.max(1, (numberOfFloors - 2 + elevators) / elevators);
+        this.byCall = new ArrayList<>(numberOfFloors * 2);
+        for (int i = 0; i < numberOfFloors * 2; i++) byCall.add(new ArrayList<>(1));
+        this.groupsByElevator = new AtomicIntegerArray(numberOfElevators);
+        this.destinationChosen = destinationChosen;
+    }
+
+    /**
+     * Used to add the passenger to a group which is already waiting on the floor, the elevator of the group has to
+     * stop on the calling floor and on the destination floor of the passenger
+     *
+     * @param fromFloor number of the floor the passenger is waiting on
+     * @param toFloor   number of the floor the passenger is going to
+     * @return elevator of the joined group, null if there is no group the passenger fits in
+     */
+    synchronized Elevator join(int fromFloor, int toFloor) {
+        for (Group group : byCall.get(call(fromFloor, toFloor))) {
+            if (group.passengers < group.elevator.getCapacity() && group.elevator.servesFloor(toFloor)
+                    && Math.max(group.highest, toFloor) - Math.min(group.lowest, toFloor) < sectorFloors
+                    && isComingTo(group.elevator, fromFloor)) {
+                group.add(toFloor);
+                return group.elevator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Used to open a new group of passengers served by the elevator
+     *
+     * @param elevator  elevator which was directed to the calling floor
+     * @param fromFloor number of the floor the passenger is waiting on
+     * @param toFloor   number of the floor the passenger is going to
+     */
+    synchronized void open(Elevator elevator, int fromFloor, int toFloor) {
+        Group group = new Group(elevator, fromFloor, toFloor > fromFloor ? Direction.UP : Direction.DOWN);
+        group.add(toFloor);
+        byCall.get(call(fromFloor, toFloor)).add(group);
+        waitingByElevator.computeIfAbsent(elevator.getId(), id -> new ArrayList<>(1)).add(group);
+        groupsByElevator.incrementAndGet(elevator.getId());
+    }
+
+    /**
+     * @param elevator  elevator which is checked
+     * @param fromFloor number of the calling floor
+     * @param direction direction of the call
+     * @return true if a group waits for the elevator on the floor
+     */
+    synchronized boolean isWaitingFor(Elevator elevator, int fromFloor, Direction direction) {
+        if (groupsByElevator.get(elevator.getId()) == 0) return false;
+        for (Group group : byCall.get(call(fromFloor, direction))) {
+            if (group.elevator == elevator) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Used to board the groups waiting for the elevator if it is already stopped on their floor
+     *
+     * @param elevator elevator which should be checked
+     */
+    void boardIfStopped(Elevator elevator) {
+        stateChanged(elevator, elevator.getSnapshot(), elevator.getSnapshot());
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        int elevatorId = elevator.getId();
+        if (elevatorId >= groupsByElevator.length() || groupsByElevator.get(elevatorId) == 0) return;
+        if (!(current instanceof ElevatorState) || !((ElevatorState) current).isStoppedAt(current.currentFloor())) {
+            return;
+        }
+        int alighted = alight(elevator, current.currentFloor());
+        List<Group> boarding = board(elevator, current);
+        int boarded = 0;
+        for (Group group : boarding) boarded += group.passengers;
+        if (boarded > 0 || alighted > 0) elevator.updateLoad(boarded, alighted);
+        for (Group group : boarding) {
+            for (int destination : group.destinations) destinationChosen.accept(elevator, destination);
+        }
+        if (current.getStatus() == Status.WAIT) {
+            for (Group group : waitingElsewhere(elevator, current.currentFloor())) {
+                elevator.address(group.fromFloor, group.direction);
+            }
+        }
+    }
+
+    /**
+     * @return groups waiting for the elevator on other floors than the one it stands on
+     */
+    private synchronized List<Group> waitingElsewhere(Elevator elevator, int floor) {
+        List<Group> waiting = waitingByElevator.get(elevator.getId());
+        if (waiting == null) return Collections.emptyList();
+        List<Group> elsewhere = new ArrayList<>(waiting.size());
+        for (Group group : waiting) {
+            if (group.fromFloor != floor) elsewhere.add(group);
+        }
+        return elsewhere;
+    }
+
+    private synchronized int alight(Elevator elevator, int floor) {
+        List<Group> riding = ridingByElevator.get(elevator.getId());
+        if (riding == null) return 0;
+        int alighted = 0;
+        for (Iterator<Group> iterator = riding.iterator(); iterator.hasNext(); ) {
+            Group group = iterator.next();
+            Integer passengers = group.passengersTo.remove(floor);
+            if (passengers != null) alighted += passengers;
+            if (group.passengersTo.isEmpty()) {
+                iterator.remove();
+                groupsByElevator.decrementAndGet(elevator.getId());
+            }
+        }
+        if (riding.isEmpty()) ridingByElevator.remove(elevator.getId());
+        return alighted;
+    }
+
+    private synchronized List<Group> board(Elevator elevator, ElevatorSnapshot stopped) {
+        List<Group> boarding = new ArrayList<>(1);
+        int floor = stopped.currentFloor();
+        for (Direction direction : new Direction[]{Direction.UP, Direction.DOWN}) {
+            if (!canBoard(stopped, direction)) continue;
+            for (Iterator<Group> iterator = byCall.get(call(floor, direction)).iterator(); iterator.hasNext(); ) {
+                Group group = iterator.next();
+                if (group.elevator == elevator) {
+                    iterator.remove();
+                    List<Group> waiting = waitingByElevator.get(elevator.getId());
+                    waiting.remove(group);
+                    if (waiting.isEmpty()) waitingByElevator.remove(elevator.getId());
+                    group.destinations = new ArrayList<>(group.passengersTo.keySet());
+                    ridingByElevator.computeIfAbsent(elevator.getId(), id -> new ArrayList<>(1)).add(group);
+                    boarding.add(group);
+                }
+            }
+        }
+        return boarding;
+    }
+
+    /**
+     * Passengers board the elevator going their way or the one which has just finished its run
+     */
+    private static boolean canBoard(ElevatorSnapshot stopped, Direction direction) {
+        return stopped.getStatus() == Status.WAIT || stopped.getCurrentDirection() == direction
+                || stopped.getAddressedFloor() == stopped.currentFloor();
+    }
+
+    private static boolean isComingTo(Elevator elevator, int floor) {
+        ElevatorSnapshot snapshot = elevator.getSnapshot();
+        if (!(snapshot instanceof ElevatorState)) return true;
+        ElevatorState state = (ElevatorState) snapshot;
+        return state.isStoppedAt(floor) || state.isGoingToStopAt(floor);
+    }
+
+    private static int call(int fromFloor, int toFloor) {
+        return call(fromFloor, toFloor > fromFloor ? Direction.UP : Direction.DOWN);
+    }
+
+    private static int call(int fromFloor, Direction direction) {
+        return fromFloor * 2 + (direction == Direction.DOWN ? 1 : 0);
+    }
+
+    private static final class Group {
+
+        private final Elevator elevator;
+
+        private final int fromFloor;
+
+        private final Direction direction;
+
+        private final Map<Integer, Integer> passengersTo = new LinkedHashMap<>(4);
+
+        private List<Integer> destinations;
+
+        private int lowest;
+
+        private int highest;
+
+        private int passengers;
+
+        private Group(Elevator elevator, int fromFloor, Direction direction) {
+            this.elevator = elevator;
+            this.fromFloor = fromFloor;
+            this.direction = direction;
+            this.lowest = Integer.MAX_VALUE;
+            this.highest = Integer.MIN_VALUE;
+        }
+
+        private void add(int destination) {
+            passengersTo.merge(destination, 1, Integer::sum);
+            lowest = Math.min(lowest, destination);
+            highest = Math.max(highest, destination);
+            passengers++;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+
+import java.util.Collection;
+
+/**
+ * Strategy used by the {@link ElevatorControllerImpl} to choose the elevator which should serve a call made on the
+ * floor
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Name of the {@link HeuristicDispatchStrategy}
+     */
+    String HEURISTIC = "heuristic";
+
+    /**
+     * Name of the {@link EtaDispatchStrategy}
+     */
+    String ETA = "eta";
+
+    /**
+     * Share of the capacity from which the elevator is nearly full - passengers waiting on the way are likely not to
+     * fit in, so the stop for them may be wasted. Strategies should prefer other elevators and never choose the full
+     * ones
+     */
+    double NEARLY_FULL = 0.8;
+
+    /**
+     * Used to create the strategy by its name, e.g. taken from the configuration
+     *
+     * @param name {@link #HEURISTIC} or {@link #ETA}
+     * @return strategy of the given name
+     */
+    static DispatchStrategy named(String name) {
+        switch (name) {
+            case HEURISTIC:
+                return new HeuristicDispatchStrategy();
+            case ETA:
+                return new EtaDispatchStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown dispatch strategy " + name);
+        }
+    }
+
+    /**
+     * Chooses the elevator which should serve the call
+     *
+     * @param candidates      elevators the elevator should be chosen from, see {@link #scoresAllElevators()}
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @param numberOfFloors  number of floors in the building
+     * @param now             current time of the simulation in milliseconds
+     * @return elevator which should serve the call, null if none of the candidates can serve it
+     */
+    Elevator chooseElevator(Collection<Elevator> candidates, int callingFloor, Direction chosenDirection,
+                            int numberOfFloors, long now);
+
+    /**
+     * @param elevator elevator which is checked
+     * @return true if no more passengers fit in the elevator
+     */
+    static boolean isFull(Elevator elevator) {
+        return elevator.getLoad() >= elevator.getCapacity();
+    }
+
+    /**
+     * @param elevator elevator which is checked
+     * @return true if the elevator is loaded to at least {@link #NEARLY_FULL} of its capacity
+     */
+    static boolean isNearlyFull(Elevator elevator) {
+        return elevator.getLoad() >= elevator.getCapacity() * NEARLY_FULL;
+    }
+
+    /**
+     * Used by the controller to decide which elevators are the candidates - only the few elevators closest to the
+     * calling floor within each kind of movement, which is enough for the strategies scoring by the distance, or all
+     * installed elevators
+     *
+     * @return true if the strategy should choose from all installed elevators
+     */
+    default boolean scoresAllElevators() {
+        return false;
+    }
+}
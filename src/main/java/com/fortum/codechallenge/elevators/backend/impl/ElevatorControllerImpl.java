@@ -3,11 +3,17 @@ package com.fortum.codechallenge.elevators.backend.impl;
 import com.fortum.codechallenge.elevators.backend.api.Direction;
 import com.fortum.codechallenge.elevators.backend.api.Elevator;
 import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.api.HallCall;
 import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 
 /**
@@ -17,27 +23,236 @@ import java.util.stream.Collectors;
 @Service
 public class ElevatorControllerImpl implements ElevatorController {
 
-    private Map<Integer, Elevator> elevators = new HashMap<>();
+    private volatile Map<Integer, Elevator> elevators = Collections.emptyMap();
 
-    private int numberOfFloors;
+    private volatile List<Elevator> installedElevators = Collections.emptyList();
 
+    private volatile int numberOfFloors;
+
+    private volatile ElevatorZones zones = new ElevatorZones(Collections.emptyList(), 0);
+
+    private volatile PendingHallCalls pendingCalls = new PendingHallCalls(0, 0);
+
+    private volatile DestinationGroups destinationGroups = new DestinationGroups(0, 0, (elevator, floor) -> {
+    });
+
+    private final SimulationScheduler scheduler;
+
+    private final DispatchStrategy dispatchStrategy;
+
+    private final List<ElevatorListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile ElevatorJournal journal;
+
+    private volatile ElevatorMetrics metrics;
+
+    private volatile IdleParking parking;
+
+    private volatile ElevatorEventPipeline events;
+
+    private final AtomicLong stateVersion = new AtomicLong();
+
+    private volatile ElevatorsView view = ElevatorsView.EMPTY;
+
+    /**
+     * Class constructor, installed elevators will be advanced by the default {@link SimulationScheduler}
+     */
+    public ElevatorControllerImpl() {
+        this(SimulationScheduler.defaultScheduler());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param scheduler scheduler which will advance all elevators installed by this controller
+     */
+    public ElevatorControllerImpl(SimulationScheduler scheduler) {
+        this(scheduler, new HeuristicDispatchStrategy());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param scheduler        scheduler which will advance all elevators installed by this controller
+     * @param dispatchStrategy strategy choosing the elevator which should serve a call
+     */
+    @Autowired
+    public ElevatorControllerImpl(SimulationScheduler scheduler, DispatchStrategy dispatchStrategy) {
+        this.scheduler = scheduler;
+        this.dispatchStrategy = dispatchStrategy;
+    }
 
     /**
      * {@inheritDoc}
      * <p>
-     * Every third elevator will go to the top of the building to wait for passengers there
+     * Every third elevator will go to the top of the building to wait for passengers there, until the attached
+     * {@link IdleParking} learns where the calls come from
      *
      * @param numberOfElevators number of elevators which should be installed
      * @param numberOfFloors    number of floors in the building
      */
     @Override
     public void installElevators(int numberOfElevators, int numberOfFloors) {
-        this.elevators.clear();
-        this.numberOfFloors = numberOfFloors;
-        for (int i = 0; i < numberOfElevators; i++) {
-            int floorNumber = (i % 3 == 2) ? numberOfFloors - 1 : 0;
-            this.elevators.put(i, new ElevatorImpl(i, floorNumber, numberOfFloors));
+        install(Collections.singletonList(ElevatorZone.wholeBuilding(numberOfElevators, numberOfFloors)),
+                numberOfFloors);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Elevators are numbered zone by zone in the order of the zones. Every third elevator of a zone will go to the
+     * top of the zone to wait for passengers there, the others wait in the lobby or at the bottom of the zone. The
+     * zones are recorded in the journal, so the elevators are recovered in their zones
+     *
+     * @param numberOfFloors number of floors in the building
+     * @param zones          zones of the elevators
+     * @return false if there is no zone, any of them does not fit the building or there are more than
+     * {@link #MAX_ELEVATORS} elevators, nothing is installed then
+     */
+    @Override
+    public boolean installZones(int numberOfFloors, List<ElevatorZone> zones) {
+        if (zones.isEmpty()) return false;
+        long numberOfElevators = 0;
+        for (ElevatorZone zone : zones) {
+            if (!zone.isValid(numberOfFloors)) return false;
+            numberOfElevators += zone.getNumberOfElevators();
+        }
+        if (numberOfElevators > MAX_ELEVATORS) return false;
+        install(zones, numberOfFloors);
+        return true;
+    }
+
+    private void install(List<ElevatorZone> installedZones, int numberOfFloors) {
+        ElevatorJournal installationJournal = this.journal;
+        if (installationJournal == null) {
+            install(installedZones, numberOfFloors, ElevatorListener.NONE);
+        } else {
+            installationJournal.installing(installedZones, numberOfFloors,
+                    recorder -> install(installedZones, numberOfFloors, recorder));
+        }
+    }
+
+    /**
+     * Used to copy the installed elevators together with their current state and load, e.g. to simulate how they
+     * would serve some traffic. Stops planned for the elevators are copied, destination calls waiting for them are
+     * not; listeners, journal, metrics and events of this controller are not attached to the copy
+     *
+     * @param copyScheduler        scheduler which will advance the copied elevators
+     * @param copyDispatchStrategy strategy choosing the elevator which should serve a call in the copy
+     * @return controller with the copied elevators
+     */
+    ElevatorControllerImpl copy(SimulationScheduler copyScheduler, DispatchStrategy copyDispatchStrategy) {
+        ElevatorControllerImpl copy = new ElevatorControllerImpl(copyScheduler, copyDispatchStrategy);
+        List<Elevator> installed = installedElevators;
+        if (installed.isEmpty()) return copy;
+        copy.install(zones.getZones(), numberOfFloors, ElevatorListener.NONE);
+        for (Elevator elevator : installed) {
+            ElevatorState state = (ElevatorState) elevator.getSnapshot();
+            ElevatorImpl copied = (ElevatorImpl) copy.elevators.get(elevator.getId());
+            copied.restore(ElevatorState.recovered(state.getVersion(), state.getStatus(), state.currentFloor(),
+                    state.getAddressedFloor(), state.getCurrentDirection(), state.getPlannedStops()));
+            copied.updateLoad(elevator.getLoad(), 0);
+        }
+        return copy;
+    }
+
+    /**
+     * Used to record the state of the elevators installed from now on in the journal
+     *
+     * @param journal journal which should record the elevators
+     */
+    public void attachJournal(ElevatorJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Used to measure wait, ride and dispatch times of the elevators installed from now on
+     *
+     * @param metrics metrics the times should be recorded in
+     */
+    public void attachMetrics(ElevatorMetrics metrics) {
+        this.metrics = metrics;
+        addListener(metrics);
+    }
+
+    /**
+     * Used to publish the events of the elevators of this controller - calls assigned to them and changes of their
+     * state - to the subscribers of the pipeline
+     *
+     * @param events pipeline the events should be published to
+     */
+    public void attachEvents(ElevatorEventPipeline events) {
+        this.events = events;
+        addListener(events);
+    }
+
+    /**
+     * Used to park idle elevators of this controller on the floors where the next calls are expected, the demand is
+     * learned from the calls made from now on
+     *
+     * @param parking parking which should learn the calls and park the elevators
+     */
+    public void attachParking(IdleParking parking) {
+        int installedFloors = this.numberOfFloors;
+        parking.installed(elevators.size(), installedFloors);
+        this.parking = parking;
+        addListener(parking);
+    }
+
+    /**
+     * Used to send the idle elevators to the floors where the next calls are expected, does nothing unless the
+     * parking is attached
+     *
+     * @return number of elevators which were sent to park
+     */
+    public int parkIdleElevators() {
+        IdleParking idleParking = this.parking;
+        return idleParking == null ? 0 : idleParking.reposition(installedElevators);
+    }
+
+    private void install(List<ElevatorZone> installedZones, int numberOfFloors, ElevatorListener recorder) {
+        int numberOfElevators = installedZones.stream().mapToInt(ElevatorZone::getNumberOfElevators).sum();
+        Map<Integer, Elevator> installedById = new HashMap<>(numberOfElevators * 2);
+        List<Elevator> installedInOrder = new ArrayList<>(numberOfElevators);
+        ElevatorZones zonesOfElevators = new ElevatorZones(installedZones, numberOfFloors);
+        PendingHallCalls installedCalls = new PendingHallCalls(numberOfElevators, numberOfFloors);
+        DestinationGroups installedGroups = new DestinationGroups(numberOfElevators, numberOfFloors,
+                this::destinationChosen);
+        ElevatorListener listener = (elevator, previous, current) -> {
+            zonesOfElevators.stateChanged(elevator, previous, current);
+            installedCalls.stateChanged(elevator, previous, current);
+            if (previous.currentFloor() != current.currentFloor() || previous.getStatus() != current.getStatus()) {
+                stateVersion.incrementAndGet();
+            }
+            recorder.stateChanged(elevator, previous, current);
+            listeners.forEach(registered -> registered.stateChanged(elevator, previous, current));
+            installedGroups.stateChanged(elevator, previous, current);
+        };
+        for (int zoneIndex = 0; zoneIndex < installedZones.size(); zoneIndex++) {
+            ElevatorZone zone = installedZones.get(zoneIndex);
+            for (int i = 0; i < zone.getNumberOfElevators(); i++) {
+                int id = installedInOrder.size();
+                int floorNumber = (i % 3 == 2) ? zone.getHighestFloor()
+                        : zone.isServesLobby() ? 0 : zone.getLowestFloor();
+                Elevator elevator = new ElevatorImpl(id, floorNumber, numberOfFloors, zone,
+                        ElevatorImpl.DEFAULT_CAPACITY, scheduler, listener);
+                installedById.put(id, elevator);
+                installedInOrder.add(elevator);
+                zonesOfElevators.add(zoneIndex, elevator);
+                installedCalls.add(elevator);
+            }
         }
+        ElevatorMetrics installationMetrics = this.metrics;
+        if (installationMetrics != null) installationMetrics.installed(numberOfElevators, numberOfFloors);
+        IdleParking installationParking = this.parking;
+        if (installationParking != null) installationParking.installed(numberOfElevators, numberOfFloors);
+        this.numberOfFloors = numberOfFloors;
+        this.zones = zonesOfElevators;
+        this.pendingCalls = installedCalls;
+        this.destinationGroups = installedGroups;
+        this.elevators = Collections.unmodifiableMap(installedById);
+        this.installedElevators = Collections.unmodifiableList(installedInOrder);
+        stateVersion.incrementAndGet();
     }
 
     /**
@@ -50,35 +265,162 @@ public class ElevatorControllerImpl implements ElevatorController {
     @Override
     public boolean chooseDestinationFloorWhenInside(int elevatorId, int toFloor) {
         Elevator elevator = this.elevators.get(elevatorId);
-        if (elevator == null || toFloor > this.numberOfFloors) {
+        int floors = this.numberOfFloors;
+        if (elevator == null || toFloor < 0 || toFloor >= floors || !elevator.servesFloor(toFloor)) {
             return false;
         }
         Direction direction = toFloor < elevator.currentFloor() ? Direction.DOWN : Direction.UP;
+        ElevatorMetrics callMetrics = this.metrics;
+        if (callMetrics != null) callMetrics.floorChosen(elevatorId, toFloor);
         addressFloor(elevator, toFloor, direction);
         return true;
 
     }
 
+    @Override
+    public int updateLoad(int elevatorId, int boarded, int alighted) {
+        Elevator elevator = this.elevators.get(elevatorId);
+        if (elevator == null || boarded < 0 || alighted < 0) return -1;
+        return elevator.updateLoad(boarded, alighted);
+    }
+
     /**
+     * {@inheritDoc}
+     * <p>
+     * A call repeated while an elevator is on its way to the floor in the same direction returns that elevator
+     * without dispatching another one, see {@link PendingHallCalls}; the repeated call is not measured, published
+     * nor learned by the parking as a new call
+     *
      * @param toFloor   addressed floor as integer.
      * @param direction chosen direction of the elevator
      * @return integer - id of the elevator which will serve the request
      */
     @Override
     public int requestElevator(int toFloor, Direction direction) {
-        if (toFloor > numberOfFloors || this.elevators.isEmpty()) return -1;
-        Elevator elevator = findBestElevator(toFloor, direction);
-        this.addressFloor(elevator, toFloor, direction);
+        int floors = this.numberOfFloors;
+        if (toFloor < 0 || toFloor >= floors || this.elevators.isEmpty()
+                || !zones.serves(toFloor, ElevatorZones.ANY_FLOOR)) {
+            return -1;
+        }
+        PendingHallCalls calls = this.pendingCalls;
+        int pending = calls.reserve(toFloor, direction);
+        if (pending != PendingHallCalls.NONE) return pending;
+        Elevator elevator;
+        try {
+            IdleParking callParking = this.parking;
+            if (callParking != null) callParking.called(toFloor);
+            long dispatchStart = System.nanoTime();
+            elevator = findBestElevator(toFloor, direction);
+            ElevatorMetrics callMetrics = this.metrics;
+            if (callMetrics != null) {
+                callMetrics.hallCalled(elevator.getId(), toFloor, direction, System.nanoTime() - dispatchStart);
+            }
+            callAssigned(elevator, toFloor, direction);
+            this.addressFloor(elevator, toFloor, direction);
+        } catch (RuntimeException e) {
+            calls.release(toFloor, direction);
+            throw e;
+        }
+        calls.assign(toFloor, direction, elevator);
+        calls.clearIfBoarding(toFloor, direction, elevator);
         return elevator.getId();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Passengers going from the same floor to similar floors are grouped in the same elevator, see
+     * {@link DestinationGroups}; a passenger joining a group which waits for its elevator does not dispatch another
+     * one. Elevators other than the ones the floor already waits for are preferred for a new group
+     *
+     * @param fromFloor number of the floor from which the elevator request was made
+     * @param toFloor   number of the floor the passenger is going to
+     * @return id of the elevator which will serve the request
+     */
+    @Override
+    public int requestElevatorToDestination(int fromFloor, int toFloor) {
+        int floors = this.numberOfFloors;
+        if (fromFloor < 0 || fromFloor >= floors || toFloor < 0 || toFloor >= floors || fromFloor == toFloor
+                || this.elevators.isEmpty() || !zones.serves(fromFloor, toFloor)) {
+            return -1;
+        }
+        Direction direction = toFloor > fromFloor ? Direction.UP : Direction.DOWN;
+        DestinationGroups groups = this.destinationGroups;
+        IdleParking callParking = this.parking;
+        if (callParking != null) callParking.called(fromFloor);
+        long dispatchStart = System.nanoTime();
+        Elevator elevator;
+        synchronized (groups) {
+            elevator = groups.join(fromFloor, toFloor);
+            if (elevator == null) {
+                elevator = findBestElevator(fromFloor, direction, toFloor,
+                        candidate -> !groups.isWaitingFor(candidate, fromFloor, direction));
+                groups.open(elevator, fromFloor, toFloor);
+                ElevatorMetrics callMetrics = this.metrics;
+                if (callMetrics != null) {
+                    callMetrics.hallCalled(elevator.getId(), fromFloor, direction, System.nanoTime() - dispatchStart);
+                }
+                callAssigned(elevator, fromFloor, direction);
+                addressFloor(elevator, fromFloor, direction);
+            } else {
+                callAssigned(elevator, fromFloor, direction);
+            }
+        }
+        groups.boardIfStopped(elevator);
+        return elevator.getId();
+    }
+
+    private void callAssigned(Elevator elevator, int floor, Direction direction) {
+        ElevatorEventPipeline callEvents = this.events;
+        if (callEvents != null) callEvents.callAssigned(elevator.getId(), floor, direction);
+    }
+
+    private void destinationChosen(Elevator elevator, int toFloor) {
+        ElevatorMetrics callMetrics = this.metrics;
+        if (callMetrics != null && elevators.get(elevator.getId()) == elevator) {
+            callMetrics.floorChosen(elevator.getId(), toFloor);
+        }
+        addressFloor(elevator, toFloor, toFloor < elevator.currentFloor() ? Direction.DOWN : Direction.UP);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Calls are dispatched one after another, in the order of the batch, exactly as if each of them was requested
+     * alone - a call repeated within the batch, or made while an elevator is already on its way, is served by that
+     * elevator, see {@link PendingHallCalls}. The calls are not assigned jointly, the batch saves only the round
+     * trips of the caller.
+     * <p>
+     * The whole batch is rejected if any of the calls is made from a floor outside of the building or without the
+     * direction
+     *
+     * @param calls calls made by passengers waiting on the floors
+     * @return ids of the elevators going to the floors, in the order of the calls - all '-1' if the batch was
+     * rejected
+     */
+    @Override
+    public List<Integer> requestElevators(List<HallCall> calls) {
+        int floors = this.numberOfFloors;
+        for (HallCall call : calls) {
+            if (call.getFloor() < 0 || call.getFloor() >= floors || call.getDirection() == null) {
+                return Collections.nCopies(calls.size(), -1);
+            }
+        }
+        List<Integer> assignments = new ArrayList<>(calls.size());
+        for (HallCall call : calls) {
+            assignments.add(requestElevator(call.getFloor(), Direction.getDirection(call.getDirection())));
+        }
+        return assignments;
+    }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The same list is returned until other elevators are installed
      */
     @Override
     public List<Elevator> getElevators() {
-        return Collections.unmodifiableList(new ArrayList(elevators.values()));
+        return installedElevators;
     }
 
     @Override
@@ -86,124 +428,107 @@ public class ElevatorControllerImpl implements ElevatorController {
         return this.numberOfFloors;
     }
 
+    @Override
+    public void addListener(ElevatorListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The same list is returned until position or status of any elevator changes
+     */
     @Override
     public List<Integer> getElevatorsPositions() {
-        return elevators.values().stream().map(Elevator::currentFloor).collect(Collectors.toList());
+        return view().getPositions();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The same list is returned until position or status of any elevator changes
+     */
     @Override
     public List<Status> getElevatorStatuses() {
-        return elevators.values().stream().map(Elevator::getStatus).collect(Collectors.toList());
+        return view().getStatuses();
+    }
+
+    /**
+     * Returns the view of the elevators, it is rebuilt only if the state of the controller has changed since the
+     * current view was built. Concurrent readers may rebuild it at the same time, each of them gets a view at least
+     * as recent as the state at the moment of the call
+     */
+    private ElevatorsView view() {
+        ElevatorsView current = this.view;
+        long version = stateVersion.get();
+        if (current.getVersion() == version) return current;
+        ElevatorsView rebuilt = new ElevatorsView(version, installedElevators);
+        this.view = rebuilt;
+        return rebuilt;
     }
 
 
     /**
-     * Method used to address target floor of the elevator
+     * Method used to address target floor of the elevator - the waiting elevator is started, the one moving in the
+     * same direction changes its target floor if it can reach it on its way, otherwise the stop is planned
      *
      * @param elevator  elevator which target field will be addressed
      * @param toFloor   number of the target floor
      * @param direction direction  which the elevator should be moving in
      */
     private void addressFloor(Elevator elevator, int toFloor, Direction direction) {
-
-        if (elevator.getStatus() == Status.WAIT) {
-            elevator.startElevator(toFloor);
-            return;
-        }
-        if (isElevatorMovingInTheSameDirection(elevator.getCurrentDirection(), direction)
-                && elevator.shouldChangeAddressedFloor(toFloor)) {
-            elevator.setAddressedFloor(toFloor);
-            return;
-        }
-
-        elevator.planStop(toFloor, direction);
-
+        elevator.address(toFloor, direction);
     }
 
     /**
-     * Method for finding elevator which shall serve the request in the most effective way
-     * Score of the elevator will be the best if:
-     * directions of the moving elevator and the one chosen by passenger are the same
-     * elevator is yet to come
-     * the closer elevator is the higher score it will get
+     * Method for finding elevator which shall serve the request in the most effective way, the choice is made by
+     * the {@link DispatchStrategy} of the controller.
+     * <p>
+     * Only the elevators of the {@link ElevatorZones} serving the calling floor are considered. Unless the strategy
+     * needs all of them, only the few candidates found in the {@link ElevatorIndex} of the zone are, the index walks
+     * past the loaded elevators closest to the calling floor to the ones which may be chosen instead of them. The
+     * cost of the dispatch does not depend on the number of elevators
      *
      * @param callingFloor    - number of the floor from which the elevator request was made
      * @param chosenDirection - direction chosen in the request
      * @return elevator which best matches the request
      */
-    private Elevator findBestElevator(int callingFloor, Direction chosenDirection) {
-        int bestScore = -numberOfFloors * 3;
-        Elevator chosenElevator = elevators.get(0);
-        for (Elevator elevator : elevators.values()) {
-            if (elevator.getStatus() == Status.OUT_OF_SERVICE) continue;
-
-            int currentScore = calculateElevatorScore(elevator, callingFloor, chosenDirection);
-
-            if (currentScore >= bestScore) {
-                bestScore = currentScore;
-                chosenElevator = elevator;
-            }
-        }
-        return chosenElevator;
-    }
-
-    private int calculateElevatorScore(Elevator elevator, int callingFloor, Direction chosenDirection) {
-        Direction elevatorDirection = elevator.getCurrentDirection();
-        int elevatorFloor = elevator.currentFloor();
-
-        if (elevator.getStatus() == Status.WAIT) {
-            return scoreForWaitingElevator(elevatorFloor, callingFloor);
-        }
-        if (isElevatorMovingInTheSameDirection(elevatorDirection, chosenDirection)) {
-            if (elevator.isAhead(callingFloor)) return scoreForSameDirectionElevatorAhead(elevatorFloor, callingFloor);
-            if (isMovingDown(elevatorDirection))
-                return scoreForSameDirectionElevatorPassedMovingDown(elevatorFloor, callingFloor);
-            return scoreForSameDirectionElevatorPassedMovingUp(elevatorFloor, callingFloor);
-        }
-        if (isMovingDown(elevatorDirection)) return scoreForDifferentDirectionMovingDown(elevatorFloor, callingFloor);
-        return scoreForDifferentDirectionMovingUp(elevatorFloor, callingFloor);
-    }
-
-    private int scoreForSameDirectionElevatorAhead(int elevatorFloor, int callingFloor) {
-        return -distanceBetweenFloors(elevatorFloor, callingFloor) + 5;
+    Elevator findBestElevator(int callingFloor, Direction chosenDirection) {
+        return findBestElevator(callingFloor, chosenDirection, ElevatorZones.ANY_FLOOR, elevator -> true);
     }
 
-    private int scoreForWaitingElevator(int elevatorFloor, int callingFloor) {
-        return -distanceBetweenFloors(elevatorFloor, callingFloor);
-
-    }
-
-    private int scoreForSameDirectionElevatorPassedMovingDown(int elevatorFloor, int callingFloor) {
-        return -elevatorFloor - numberOfFloors - distanceFromHighestFloor(callingFloor);
-    }
-
-    private int scoreForDifferentDirectionMovingDown(int elevatorFloor, int callingFloor) {
-        return -elevatorFloor - callingFloor;
-    }
-
-    private int scoreForDifferentDirectionMovingUp(int elevatorFloor, int callingFloor) {
-        return -distanceFromHighestFloor(elevatorFloor) - distanceFromHighestFloor(callingFloor);
-    }
-
-    private int scoreForSameDirectionElevatorPassedMovingUp(int elevatorFloor, int callingFloor) {
-        return -numberOfFloors - callingFloor - distanceFromHighestFloor(elevatorFloor);
-    }
-
-    private boolean isElevatorMovingInTheSameDirection(Direction elevatorDirection, Direction chosenDirection) {
-        return elevatorDirection == chosenDirection;
-    }
-
-    private boolean isMovingDown(Direction direction) {
-        return direction == Direction.DOWN;
+    /**
+     * Used to find the elevator which shall serve the request among the preferred ones, the best of all elevators
+     * serving both floors is returned if none of the preferred ones can serve it
+     *
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @param toFloor         number of the destination floor, {@link ElevatorZones#ANY_FLOOR} if it is not known
+     * @param preferred       condition the preferred elevators meet
+     * @return elevator which best matches the request
+     */
+    private Elevator findBestElevator(int callingFloor, Direction chosenDirection, int toFloor,
+                                      Predicate<Elevator> preferred) {
+        ElevatorZones callZones = this.zones;
+        Collection<Elevator> candidates = dispatchStrategy.scoresAllElevators()
+                ? callZones.elevators(callingFloor, toFloor)
+                : callZones.candidates(callingFloor, chosenDirection, toFloor, preferred);
+        Elevator chosenElevator = chooseElevator(filter(candidates, preferred), callingFloor, chosenDirection);
+        if (chosenElevator == null) chosenElevator = chooseElevator(candidates, callingFloor, chosenDirection);
+        return chosenElevator != null ? chosenElevator : callZones.elevators(callingFloor, toFloor).get(0);
     }
 
-    private int distanceBetweenFloors(int currentFloor, int callingFloor) {
-        return Math.abs(currentFloor - callingFloor);
+    private Elevator chooseElevator(Collection<Elevator> candidates, int callingFloor, Direction chosenDirection) {
+        if (candidates.isEmpty()) return null;
+        return dispatchStrategy.chooseElevator(candidates, callingFloor, chosenDirection, numberOfFloors,
+                scheduler.currentTimeMillis());
     }
 
-    private int distanceFromHighestFloor(int callingFloor) {
-        return Math.abs(numberOfFloors - callingFloor);
+    private static Collection<Elevator> filter(Collection<Elevator> elevators, Predicate<Elevator> condition) {
+        List<Elevator> filtered = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            if (condition.test(elevator)) filtered.add(elevator);
+        }
+        return filtered;
     }
-
-
 }
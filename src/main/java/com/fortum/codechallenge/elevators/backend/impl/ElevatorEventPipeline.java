@@ -0,0 +1,222 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEvent;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEventSubscriber;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes typed {@link ElevatorEvent}s of the elevators to the subscribers, away from the threads which move and
+ * dispatch the elevators.
+ * <p>
+ * Changes of the elevator state are turned into the events as the pipeline is notified about them, the calls are
+ * published by the controller it is attached to. Events wait in a bounded queue and are delivered in batches of up
+ * to the batch size, one batch at a time, so a burst of changes costs one hand-off to the delivering thread instead
+ * of one per event. Publishing never blocks the threads which move and dispatch the elevators - when the
+ * subscribers do not keep up and the queue is full, the event is dropped right away and counted in
+ * {@link #getDroppedEvents()}. The subscribers are told about the drop before the next batch, see
+ * {@link ElevatorEventSubscriber#eventsDropped(long)}, so they can resync with the current state of the elevators
+ * instead of missing the dropped changes. Nothing is queued while there are no subscribers
+ */
+public class ElevatorEventPipeline implements ElevatorListener, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorEventPipeline.class);
+
+    private final SimulationClock clock;
+
+    private final Executor executor;
+
+    private final ExecutorService ownExecutor;
+
+    private final BlockingQueue<ElevatorEvent> queue;
+
+    private final int batchSize;
+
+    private final List<ElevatorEventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final AtomicLong undeliveredDrops = new AtomicLong();
+
+    /**
+     * Class constructor, events are delivered on a single thread owned by the pipeline
+     *
+     * @param clock     source of the time the events happened at
+     * @param capacity  the most events waiting for delivery
+     * @param batchSize the most events delivered in one batch
+     */
+    public ElevatorEventPipeline(SimulationClock clock, int capacity, int batchSize) {
+        this(clock, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "elevator-events");
+            thread.setDaemon(true);
+            return thread;
+        }), capacity, batchSize, true);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param clock     source of the time the events happened at
+     * @param executor  executor the batches are delivered on, it should not run more than one task at a time
+     * @param capacity  the most events waiting for delivery
+     * @param batchSize the most events delivered in one batch
+     */
+    public ElevatorEventPipeline(SimulationClock clock, Executor executor, int capacity, int batchSize) {
+        this(clock, executor, capacity, batchSize, false);
+    }
+
+    private ElevatorEventPipeline(SimulationClock clock, Executor executor, int capacity, int batchSize,
+                                  boolean ownsExecutor) {
+        this.clock = clock;
+        this.executor = executor;
+        this.ownExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Used to receive the events published from now on
+     *
+     * @param subscriber subscriber which should receive the events
+     */
+    public void subscribe(ElevatorEventSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Used to publish the elevator chosen to serve the call
+     *
+     * @param elevatorId id of the elevator chosen to serve the call
+     * @param floor      number of the floor the call was made from
+     * @param direction  direction chosen in the call
+     */
+    void callAssigned(int elevatorId, int floor, Direction direction) {
+        if (subscribers.isEmpty()) return;
+        publish(new ElevatorEvent.CallAssigned(elevatorId, clock.currentTimeMillis(), floor, direction));
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        if (subscribers.isEmpty()) return;
+        int elevatorId = elevator.getId();
+        long now = clock.currentTimeMillis();
+        int floor = current.currentFloor();
+        if (previous.currentFloor() != floor) {
+            publish(new ElevatorEvent.FloorReached(elevatorId, now, floor));
+        }
+        if (isStoppedAt(current, floor) && !isStoppedAt(previous, floor)) {
+            publish(new ElevatorEvent.DoorsOpened(elevatorId, now, floor));
+        }
+        if (previous.getCurrentDirection() != current.getCurrentDirection()) {
+            publish(new ElevatorEvent.DirectionChanged(elevatorId, now, previous.getCurrentDirection(),
+                    current.getCurrentDirection()));
+        }
+        if (previous.getStatus() != current.getStatus()) {
+            publish(new ElevatorEvent.StatusChanged(elevatorId, now, previous.getStatus(), current.getStatus()));
+        }
+    }
+
+    /**
+     * Used to publish the event, it is dropped right away if the queue is full
+     *
+     * @param event event which should be delivered to the subscribers
+     */
+    public void publish(ElevatorEvent event) {
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet();
+            undeliveredDrops.incrementAndGet();
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * @return number of events dropped because the queue stayed full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Stops the thread owned by the pipeline, events which were not delivered yet are dropped
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) ownExecutor.shutdownNow();
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // the pipeline is closed, nothing will deliver the waiting events
+            droppedEvents.addAndGet(queue.size());
+            queue.clear();
+            drainScheduled.set(false);
+        }
+    }
+
+    /**
+     * Delivers the waiting events batch by batch until the queue is empty, events published after the queue was
+     * found empty are delivered by the next drain
+     */
+    private void drain() {
+        try {
+            List<ElevatorEvent> batch = new ArrayList<>(batchSize);
+            while (true) {
+                long dropped = undeliveredDrops.getAndSet(0);
+                if (dropped > 0) dropped(dropped);
+                if (queue.drainTo(batch, batchSize) == 0) break;
+                deliver(Collections.unmodifiableList(batch));
+                batch = new ArrayList<>(batchSize);
+            }
+        } finally {
+            drainScheduled.set(false);
+        }
+        if (!queue.isEmpty() || undeliveredDrops.get() > 0) scheduleDrain();
+    }
+
+    private void deliver(List<ElevatorEvent> batch) {
+        for (ElevatorEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.eventsPublished(batch);
+            } catch (RuntimeException e) {
+                // one failing subscriber should not stop the delivery to the others
+                LOGGER.error("Subscriber failed to receive {} elevator events", batch.size(), e);
+            }
+        }
+    }
+
+    private void dropped(long dropped) {
+        for (ElevatorEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.eventsDropped(dropped);
+            } catch (RuntimeException e) {
+                LOGGER.error("Subscriber failed to resync after {} dropped elevator events", dropped, e);
+            }
+        }
+    }
+
+    private static boolean isStoppedAt(ElevatorSnapshot snapshot, int floor) {
+        return snapshot instanceof ElevatorState && ((ElevatorState) snapshot).isStoppedAt(floor);
+    }
+}
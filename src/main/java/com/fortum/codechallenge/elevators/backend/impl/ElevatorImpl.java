@@ -2,29 +2,51 @@ package com.fortum.codechallenge.elevators.backend.impl;
 
 import com.fortum.codechallenge.elevators.backend.api.Direction;
 import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
 import com.fortum.codechallenge.elevators.backend.api.Status;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Implementation of the interface {@link Elevator}
+ * <p>
+ * The whole state of the elevator is kept in one immutable {@link ElevatorState} swapped with compare-and-set,
+ * so the elevator can be read and directed from many threads while it is being advanced by the scheduler
  */
-public class ElevatorImpl implements Elevator, Runnable {
+public class ElevatorImpl implements Elevator {
 
-    private int id;
+    /**
+     * Time in milliseconds the elevator needs to pass by one floor
+     */
+    static final long FLOOR_TRAVEL_MILLIS = 600;
+
+    /**
+     * Time in milliseconds the elevator stays on the floor it stopped at
+     */
+    static final long STOP_MILLIS = 1000;
+
+    /**
+     * Number of passengers the elevator can take, unless given otherwise
+     */
+    public static final int DEFAULT_CAPACITY = 13;
+
+    private final int id;
 
-    private Thread elevatorRunningThread;
+    private final SimulationScheduler scheduler;
 
-    private volatile Status status;
+    private final ElevatorListener listener;
 
-    private int addressedFloor;
+    private final AtomicReference<ElevatorState> state;
 
-    private ArrayList<Direction> shouldStop;
+    private final int capacity;
 
-    private int currentFloor;
+    private final ElevatorZone zone;
 
-    private Direction currentDirection;
+    private final AtomicInteger load = new AtomicInteger();
 
     /**
      * Class constructor
@@ -34,27 +56,85 @@ public class ElevatorImpl implements Elevator, Runnable {
      * @param numberOfFloors number of floors in the building in which elevator should be installed
      */
     public ElevatorImpl(int id, int currentFloor, int numberOfFloors) {
+        this(id, currentFloor, numberOfFloors, SimulationScheduler.defaultScheduler());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param id             id of the elevator
+     * @param currentFloor   number of floor on which the elevator should be installed
+     * @param numberOfFloors number of floors in the building in which elevator should be installed
+     * @param scheduler      scheduler which will advance the elevator while it is running
+     */
+    public ElevatorImpl(int id, int currentFloor, int numberOfFloors, SimulationScheduler scheduler) {
+        this(id, currentFloor, numberOfFloors, scheduler, ElevatorListener.NONE);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param id             id of the elevator
+     * @param currentFloor   number of floor on which the elevator should be installed
+     * @param numberOfFloors number of floors in the building in which elevator should be installed
+     * @param scheduler      scheduler which will advance the elevator while it is running
+     * @param listener       listener notified about every change of the elevator state
+     */
+    public ElevatorImpl(int id, int currentFloor, int numberOfFloors, SimulationScheduler scheduler,
+                        ElevatorListener listener) {
+        this(id, currentFloor, numberOfFloors, DEFAULT_CAPACITY, scheduler, listener);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param id             id of the elevator
+     * @param currentFloor   number of floor on which the elevator should be installed
+     * @param numberOfFloors number of floors in the building in which elevator should be installed
+     * @param capacity       number of passengers the elevator can take
+     * @param scheduler      scheduler which will advance the elevator while it is running
+     * @param listener       listener notified about every change of the elevator state
+     */
+    public ElevatorImpl(int id, int currentFloor, int numberOfFloors, int capacity, SimulationScheduler scheduler,
+                        ElevatorListener listener) {
+        this(id, currentFloor, numberOfFloors, ElevatorZone.wholeBuilding(1, numberOfFloors), capacity, scheduler,
+                listener);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param id             id of the elevator
+     * @param currentFloor   number of floor on which the elevator should be installed
+     * @param numberOfFloors number of floors in the building in which elevator should be installed
+     * @param zone           zone of the building the elevator serves
+     * @param capacity       number of passengers the elevator can take
+     * @param scheduler      scheduler which will advance the elevator while it is running
+     * @param listener       listener notified about every change of the elevator state
+     */
+    public ElevatorImpl(int id, int currentFloor, int numberOfFloors, ElevatorZone zone, int capacity,
+                        SimulationScheduler scheduler, ElevatorListener listener) {
+        if (capacity < 1) throw new IllegalArgumentException("Elevator must take at least one passenger");
         this.id = id;
-        this.status = Status.WAIT;
-        this.currentFloor = currentFloor;
-        this.addressedFloor = currentFloor;
-        this.currentDirection = Direction.NONE;
-        this.shouldStop = new ArrayList<>(Collections.nCopies(numberOfFloors, Direction.NONE));
+        this.capacity = capacity;
+        this.zone = zone;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.state = new AtomicReference<>(ElevatorState.installed(currentFloor, numberOfFloors));
     }
 
     @Override
     public Status getStatus() {
-        return this.status;
+        return state.get().getStatus();
     }
 
     @Override
     public int getAddressedFloor() {
-        return addressedFloor;
+        return state.get().getAddressedFloor();
     }
 
     public void setAddressedFloor(int addressedFloor) {
-        this.planStop(this.addressedFloor, this.currentDirection);
-        this.addressedFloor = addressedFloor;
+        update(current -> current.withAddressedFloor(addressedFloor));
     }
 
     @Override
@@ -64,180 +144,105 @@ public class ElevatorImpl implements Elevator, Runnable {
 
     @Override
     public void startElevator(int toFloor) {
-        this.addressedFloor = toFloor;
-        if (toFloor > this.currentFloor) {
-            this.currentDirection = Direction.UP;
-        } else {
-            this.currentDirection = Direction.DOWN;
-        }
-        this.start();
+        update(current -> current.started(toFloor));
     }
 
     @Override
     public int currentFloor() {
-        return currentFloor;
+        return state.get().currentFloor();
     }
 
     @Override
     public void planStop(int onFloor, Direction direction) {
-        if (shouldStop.get(onFloor) == Direction.NONE) {
-            shouldStop.set(onFloor, direction);
-        } else if (shouldStop.get(onFloor) != Direction.BOTH) {
-            shouldStop.set(onFloor, Direction.BOTH);
-        }
+        update(current -> current.withPlannedStop(onFloor, direction));
     }
 
     @Override
     public Direction getCurrentDirection() {
-        return currentDirection;
+        return state.get().getCurrentDirection();
     }
 
-
     @Override
     public boolean isAhead(int floorNumber) {
-        return (isMovingUp() && isLowerThan(floorNumber)) || (isMovingDown() && isHigherThan(floorNumber));
-    }
-
-    public void run() {
-        while (!hasArrivedToAddressedFloor()) {
-
-            if ((hasReachedTopFloor() && isMovingUp()) || (isMovingDown() && hasReachedLowestFloor())) {
-                this.startWaiting();
-                return;
-            }
-
-            if (isMovingUp()) moveOneFloorUp();
-            else moveOneFloorDown();
-
-
-            try {
-                if (shouldStopAtCurrentFloor()) {
-                    Thread.sleep(1000);
-                    removeCurrentFloorFromPlannedStops();
-                } else {
-                    Thread.sleep(600);
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                return;
-            }
-            if (shouldChangeTheDirection()) {
-                changeAddressedFloorChangeDirection();
-                changeCurrentDirectionToOpposite();
-            }
-        }
-        startWaiting();
+        return state.get().isAhead(floorNumber);
     }
 
     @Override
     public boolean shouldChangeAddressedFloor(int floorNumber) {
-        return
-                (isMovingDown() && isAddressedFloorHigherThan(floorNumber))
-                        || (isMovingUp() && isAddressedFloorLowerThan(floorNumber));
-    }
-
-    private void startWaiting() {
-        this.status = Status.WAIT;
-        this.currentDirection = Direction.NONE;
-    }
-
-    private boolean hasArrivedToAddressedFloor() {
-        return this.currentFloor == this.addressedFloor;
-    }
-
-    private boolean hasArrivedToPlannedStopFloor() {
-        return (shouldStop.get(currentFloor) == currentDirection ||
-                shouldStop.get(currentFloor) == Direction.BOTH);
-    }
-
-    private boolean isMovingUp() {
-        return this.currentDirection == Direction.UP;
-    }
-
-    private void moveOneFloorUp() {
-        currentFloor = currentFloor + 1;
-    }
-
-    private void moveOneFloorDown() {
-        currentFloor = currentFloor - 1;
-    }
-
-    private boolean shouldStopAtCurrentFloor() {
-        return (hasArrivedToPlannedStopFloor() ||
-                hasArrivedToAddressedFloor());
-    }
-
-    private void removeCurrentFloorFromPlannedStops() {
-        shouldStop.set(currentFloor, shouldStopForBothDirections() ?
-                Direction.opposite(currentDirection) : Direction.NONE);
-    }
-
-    private boolean shouldStopForBothDirections() {
-        return shouldStop.get(currentFloor) == Direction.BOTH;
-    }
-
-    private boolean hasPlannedStopsInOppositeDirection() {
-        return shouldStop.contains(Direction.opposite(currentDirection));
-    }
-
-    private boolean shouldChangeTheDirection() {
-        return (hasArrivedToAddressedFloor() && hasPlannedStopsInOppositeDirection());
-    }
-
-    private boolean hasReachedTopFloor() {
-        return currentFloor == shouldStop.size() - 1;
-    }
-
-    private boolean hasReachedLowestFloor() {
-        return currentFloor == 0;
-    }
-
-    private boolean isMovingDown() {
-        return this.currentDirection == Direction.DOWN;
+        return state.get().shouldChangeAddressedFloor(floorNumber);
     }
 
-
-    private boolean isLowerThan(int floorNumber) {
-        return this.currentFloor < floorNumber;
+    @Override
+    public void address(int toFloor, Direction direction) {
+        update(current -> current.addressed(toFloor, direction));
     }
 
-    private boolean isHigherThan(int floorNumber) {
-        return this.currentFloor > floorNumber;
+    @Override
+    public ElevatorSnapshot getSnapshot() {
+        return state.get();
     }
 
-    private void changeAddressedFloorChangeDirection() {
-        this.addressedFloor = isMovingUp() ?
-                getNumberOfTheLowestPlannedStop() : getNumberOfTheHighestPlannedStop();
+    @Override
+    public int getLoad() {
+        return load.get();
     }
 
-    private int getNumberOfTheHighestPlannedStop() {
-        return shouldStop.lastIndexOf(Direction.UP);
+    @Override
+    public int getCapacity() {
+        return capacity;
     }
 
-    private int getNumberOfTheLowestPlannedStop() {
-        return shouldStop.indexOf(Direction.DOWN);
+    @Override
+    public boolean servesFloor(int floor) {
+        return zone.serves(floor);
     }
 
-    private void changeCurrentDirectionToOpposite() {
-        this.currentDirection = Direction.opposite(this.currentDirection);
+    @Override
+    public int updateLoad(int boarded, int alighted) {
+        return load.updateAndGet(current -> Math.max(0, Math.max(0, current - alighted) + boarded));
     }
 
-    private boolean isAddressedFloorHigherThan(int floorNumber) {
-        return this.addressedFloor > floorNumber;
+    /**
+     * Replaces the state of the elevator with the recovered one, e.g. after restart
+     *
+     * @param recovered state the elevator should continue with
+     */
+    void restore(ElevatorState recovered) {
+        update(current -> recovered);
     }
 
-
-    private boolean isAddressedFloorLowerThan(int floorNumber) {
-        return this.addressedFloor < floorNumber;
+    /**
+     * Advances the running elevator, called by the {@link SimulationScheduler} on every tick.
+     *
+     * @param now current time in milliseconds
+     * @return false if the elevator is not running anymore
+     */
+    boolean tick(long now) {
+        return update(current -> current.step(now)).getStatus() == Status.RUN;
     }
 
-
-    private void start() {
-        if (elevatorRunningThread == null || !elevatorRunningThread.isAlive()) {
-            this.status = Status.RUN;
-            elevatorRunningThread = new Thread(this);
-            elevatorRunningThread.start();
+    /**
+     * Applies the transition, hands the elevator over to the scheduler if the transition started it and notifies
+     * the listener about the change
+     *
+     * @param transition function creating the new state out of the current one, may be called more than once
+     * @return state after the transition
+     */
+    private ElevatorState update(UnaryOperator<ElevatorState> transition) {
+        ElevatorState previous;
+        ElevatorState next;
+        do {
+            previous = state.get();
+            next = transition.apply(previous);
+        } while (previous != next && !state.compareAndSet(previous, next));
+
+        if (previous != next) {
+            if (previous.getStatus() != Status.RUN && next.getStatus() == Status.RUN) {
+                scheduler.activate(this);
+            }
+            listener.stateChanged(this, previous, next);
         }
+        return next;
     }
 
 }
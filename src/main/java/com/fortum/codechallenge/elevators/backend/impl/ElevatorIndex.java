@@ -0,0 +1,220 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Index of elevators bucketed by their movement (waiting, going up, going down) and ordered by floor within each
+ * bucket, kept up to date on every change of the elevators' state.
+ * <p>
+ * It lets the dispatcher find the few elevators which can get the best score for a call in logarithmic time,
+ * instead of scoring all of them. Elevators out of service are not indexed
+ */
+class ElevatorIndex implements ElevatorListener {
+
+    private static final long MAX_ID = 0xffffffffL;
+
+    private final NavigableSet<Long> waiting = new ConcurrentSkipListSet<>();
+
+    private final NavigableSet<Long> goingUp = new ConcurrentSkipListSet<>();
+
+    private final NavigableSet<Long> goingDown = new ConcurrentSkipListSet<>();
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Used to start indexing the elevator
+     *
+     * @param elevator elevator which should be indexed from now on
+     */
+    void add(Elevator elevator) {
+        Entry entry = new Entry(elevator);
+        entries.put(elevator.getId(), entry);
+        reindex(entry);
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        if (previous.getStatus() == current.getStatus()
+                && previous.currentFloor() == current.currentFloor()
+                && previous.getCurrentDirection() == current.getCurrentDirection()) {
+            return;
+        }
+        Entry entry = entries.get(elevator.getId());
+        if (entry != null) reindex(entry);
+    }
+
+    /**
+     * Finds elevators which may get the best score for the call. For each kind of elevator it is the closest or
+     * the farthest one, which is what the dispatch score is based on; among elevators on the same floor the one with
+     * the highest id is returned
+     *
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @return at most five elevators, one of them has the best score for the call
+     */
+    List<Elevator> candidates(int callingFloor, Direction chosenDirection) {
+        return candidates(callingFloor, chosenDirection, elevator -> true);
+    }
+
+    /**
+     * Finds elevators which may get the best score for the call, the same way as
+     * {@link #candidates(int, Direction)}, taking into account the load of the elevators and the preferred ones.
+     * <p>
+     * Within each kind the elevators are walked from the best one, past the full ones, until a preferred one which
+     * is not nearly full is found. The first elevator which is not full, the first one which is not nearly full and
+     * the first preferred one are kept on the way, as a nearly full or not preferred elevator still wins if no other
+     * can serve the call. A walk
+     * is as short as the run of loaded elevators next to the calling floor, all elevators are walked only if all of
+     * them are loaded
+     *
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @param preferred       condition the preferred elevators meet
+     * @return elevators one of which has the best score for the call - among the preferred ones if any of them can
+     * serve it
+     */
+    List<Elevator> candidates(int callingFloor, Direction chosenDirection, Predicate<Elevator> preferred) {
+        List<Elevator> candidates = new ArrayList<>(5);
+        addCandidates(candidates, closestFirst(waiting, waiting.floor(key(callingFloor, MAX_ID))), preferred);
+        addCandidates(candidates, upwards(waiting, waiting.higher(key(callingFloor, MAX_ID))), preferred);
+
+        if (chosenDirection == Direction.UP) {
+            addCandidates(candidates, closestFirst(goingUp, goingUp.lower(key(callingFloor, 0))), preferred);
+            addCandidates(candidates, closestFirst(goingUp, goingUp.isEmpty() ? null : goingUp.last()), preferred);
+            addCandidates(candidates, upwards(goingDown, goingDown.isEmpty() ? null : goingDown.first()), preferred);
+        } else {
+            addCandidates(candidates, upwards(goingDown, goingDown.higher(key(callingFloor, MAX_ID))), preferred);
+            addCandidates(candidates, upwards(goingDown, goingDown.isEmpty() ? null : goingDown.first()), preferred);
+            addCandidates(candidates, closestFirst(goingUp, goingUp.isEmpty() ? null : goingUp.last()), preferred);
+        }
+        return candidates;
+    }
+
+    /**
+     * Moves the entry to the bucket and position matching current state of its elevator. Current state is read
+     * under the entry lock, so notifications coming out of order still leave the entry indexed correctly
+     */
+    private void reindex(Entry entry) {
+        synchronized (entry) {
+            ElevatorSnapshot snapshot = entry.elevator.getSnapshot();
+            NavigableSet<Long> bucket = bucketOf(snapshot);
+            long key = key(snapshot.currentFloor(), entry.elevator.getId());
+            if (bucket == entry.bucket && key == entry.key) return;
+
+            if (entry.bucket != null) entry.bucket.remove(entry.key);
+            if (bucket != null) bucket.add(key);
+            entry.bucket = bucket;
+            entry.key = key;
+        }
+    }
+
+    private NavigableSet<Long> bucketOf(ElevatorSnapshot snapshot) {
+        if (snapshot.getStatus() == Status.WAIT) return waiting;
+        if (snapshot.getStatus() != Status.RUN) return null;
+        if (snapshot.getCurrentDirection() == Direction.UP) return goingUp;
+        if (snapshot.getCurrentDirection() == Direction.DOWN) return goingDown;
+        return null;
+    }
+
+    private void addCandidates(List<Elevator> candidates, Iterator<Long> walk, Predicate<Elevator> preferred) {
+        boolean notFullFound = false;
+        boolean notLoadedFound = false;
+        boolean preferredFound = false;
+        while (walk.hasNext()) {
+            Entry entry = entries.get((int) walk.next().longValue());
+            if (entry == null || DispatchStrategy.isFull(entry.elevator)) continue;
+            boolean isPreferred = preferred.test(entry.elevator);
+            boolean isLoaded = DispatchStrategy.isNearlyFull(entry.elevator);
+            if (!notFullFound || (!isLoaded && !notLoadedFound) || (isPreferred && !preferredFound)
+                    || (isPreferred && !isLoaded)) {
+                addCandidate(candidates, entry.elevator);
+            }
+            notFullFound = true;
+            notLoadedFound |= !isLoaded;
+            preferredFound |= isPreferred;
+            if (isPreferred && !isLoaded) return;
+        }
+    }
+
+    private static void addCandidate(List<Elevator> candidates, Elevator elevator) {
+        if (!candidates.contains(elevator)) candidates.add(elevator);
+    }
+
+    /**
+     * @return keys of the bucket from the given one downwards - floors from the highest, ids from the highest
+     */
+    private static Iterator<Long> closestFirst(NavigableSet<Long> bucket, Long key) {
+        return key == null ? Collections.emptyIterator() : bucket.headSet(key, true).descendingIterator();
+    }
+
+    /**
+     * @return keys of the bucket from the floor of the given one upwards - floors from the lowest, ids on each of
+     * them from the highest
+     */
+    private static Iterator<Long> upwards(NavigableSet<Long> bucket, Long key) {
+        if (key == null) return Collections.emptyIterator();
+        return new Iterator<Long>() {
+
+            private int floor = floorOf(key);
+
+            private Iterator<Long> onFloor = onFloor(floor);
+
+            @Override
+            public boolean hasNext() {
+                while (!onFloor.hasNext()) {
+                    Long higher = bucket.higher(key(floor, MAX_ID));
+                    if (higher == null) return false;
+                    floor = floorOf(higher);
+                    onFloor = onFloor(floor);
+                }
+                return true;
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return onFloor.next();
+            }
+
+            private Iterator<Long> onFloor(int floor) {
+                return bucket.subSet(key(floor, 0), true, key(floor, MAX_ID), true).descendingIterator();
+            }
+        };
+    }
+
+    private static long key(int floor, long id) {
+        return ((long) floor << 32) | (id & MAX_ID);
+    }
+
+    private static int floorOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static final class Entry {
+
+        private final Elevator elevator;
+
+        private NavigableSet<Long> bucket;
+
+        private long key;
+
+        private Entry(Elevator elevator) {
+            this.elevator = elevator;
+        }
+    }
+}
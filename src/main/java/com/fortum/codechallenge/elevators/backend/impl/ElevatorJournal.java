@@ -0,0 +1,366 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of the elevators' state used to recover the elevators after restart.
+ * <p>
+ * Every change of the elevator state is appended to a buffer which is written to the journal file on
+ * {@link #flush()}. The journal is compacted by {@link #snapshot(ElevatorController)}, which writes the current
+ * state of all elevators to the snapshot file and truncates the journal, so recovery reads the snapshot and only
+ * the tail of the journal written since. States are versioned, so the latest state of each elevator wins no matter
+ * in which order the changes were appended.
+ * <p>
+ * Threads changing the elevator state never touch the files: the lock of the journal guards only the buffers, a
+ * full buffer is replaced by a free one and waits for the next flush. Flush and snapshot swap the buffers under the
+ * lock and write them, force and move the files under a separate lock, so the elevators keep moving while the disk
+ * is slow
+ */
+public class ElevatorJournal implements Closeable {
+
+    static final String JOURNAL_FILE = "journal.bin";
+
+    static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private static final byte INSTALL = 1;
+
+    private static final byte STATE = 2;
+
+    private static final byte ZONE = 3;
+
+    private static final int INSTALL_BYTES = 1 + 4 + 4;
+
+    private static final int ZONE_BYTES = 1 + 4 + 4 + 4 + 1;
+
+    private static final int STATE_HEADER_BYTES = 1 + 4 + 8 + 1 + 4 + 4 + 1 + 4;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static final int MAX_FREE_BUFFERS = 4;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Path directory;
+
+    private final FileChannel journal;
+
+    private final Object writing = new Object();
+
+    private final Deque<ByteBuffer> filledBuffers = new ArrayDeque<>();
+
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private long installation;
+
+    private int numberOfElevators;
+
+    private int numberOfFloors;
+
+    private List<ElevatorZone> zones = new ArrayList<>();
+
+    /**
+     * Class constructor, the directory is created if it does not exist
+     *
+     * @param directory directory of the journal and snapshot files
+     * @throws IOException if the journal cannot be opened
+     */
+    public ElevatorJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.journal = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Used to install elevators while the journal records the installation together with the zones of the
+     * elevators, state changes of previously installed elevators are not recorded anymore
+     *
+     * @param zones          zones of the installed elevators
+     * @param numberOfFloors number of floors in the building
+     * @param install        installs the elevators which notify the given listener about their state changes
+     */
+    synchronized void installing(List<ElevatorZone> zones, int numberOfFloors, Consumer<ElevatorListener> install) {
+        long current = ++installation;
+        this.numberOfElevators = zones.stream().mapToInt(ElevatorZone::getNumberOfElevators).sum();
+        this.numberOfFloors = numberOfFloors;
+        this.zones = new ArrayList<>(zones);
+        appendInstall(buffer(INSTALL_BYTES + zones.size() * ZONE_BYTES), numberOfElevators, numberOfFloors,
+                this.zones);
+        install.accept((elevator, previous, state) -> recorded(current, elevator, state));
+    }
+
+    private synchronized void recorded(long installation, Elevator elevator, ElevatorSnapshot state) {
+        if (installation != this.installation || !(state instanceof ElevatorState)) return;
+        ElevatorState elevatorState = (ElevatorState) state;
+        appendState(buffer(stateBytes(elevatorState)), elevator.getId(), elevatorState);
+    }
+
+    /**
+     * Writes the buffered records to the journal file
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (writing) {
+            write(takeBuffers());
+        }
+    }
+
+    /**
+     * Writes the current state of all elevators to the snapshot file and truncates the journal. The snapshot is
+     * written to a temporary file first, so a crash while taking it leaves the previous snapshot in place
+     *
+     * @param controller controller which elevators are recorded by this journal
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot(ElevatorController controller) throws IOException {
+        synchronized (writing) {
+            List<ByteBuffer> recorded;
+            int snapshotElevators;
+            int snapshotFloors;
+            List<ElevatorZone> snapshotZones;
+            List<Elevator> elevators;
+            ElevatorSnapshot[] states;
+            synchronized (this) {
+                recorded = takeBuffers();
+                snapshotElevators = numberOfElevators;
+                snapshotFloors = numberOfFloors;
+                snapshotZones = zones;
+                elevators = controller.getElevators();
+                states = new ElevatorSnapshot[elevators.size()];
+                for (int i = 0; i < states.length; i++) states[i] = elevators.get(i).getSnapshot();
+            }
+            write(recorded);
+
+            ByteBuffer snapshot = ByteBuffer.allocate(INSTALL_BYTES + snapshotZones.size() * ZONE_BYTES
+                    + states.length * (STATE_HEADER_BYTES + 2 * Long.BYTES * wordsOf(snapshotFloors)));
+            appendInstall(snapshot, snapshotElevators, snapshotFloors, snapshotZones);
+            for (int i = 0; i < states.length; i++) {
+                if (states[i] instanceof ElevatorState) {
+                    appendState(snapshot, elevators.get(i).getId(), (ElevatorState) states[i]);
+                }
+            }
+            snapshot.flip();
+            writeSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * States recorded after the buffers were taken for the snapshot stay in the buffers, they are written to the
+     * journal after it is truncated
+     */
+    private void writeSnapshot(ByteBuffer snapshot) throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) channel.write(snapshot);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        journal.truncate(0);
+    }
+
+    /**
+     * Installs the recorded elevators in the controller - in their recorded zones, or serving the whole building if
+     * the journal has no zones - and restores their latest recorded state. Record torn by a crash ends the journal, it is cut off so that new records are appended after the last complete one
+     *
+     * @param controller controller in which the elevators should be installed
+     * @return true if any installation was recorded
+     * @throws IOException if the snapshot or the journal cannot be read
+     */
+    public boolean recover(ElevatorController controller) throws IOException {
+        Recovery recovery = new Recovery();
+        synchronized (writing) {
+            recovery.read(directory.resolve(SNAPSHOT_FILE));
+            journal.truncate(recovery.read(directory.resolve(JOURNAL_FILE)));
+        }
+        if (recovery.numberOfFloors == 0) return false;
+
+        if (recovery.zones.isEmpty() || !controller.installZones(recovery.numberOfFloors, recovery.zones)) {
+            controller.installElevators(recovery.numberOfElevators, recovery.numberOfFloors);
+        }
+        for (Elevator elevator : controller.getElevators()) {
+            ElevatorState state = recovery.states.get(elevator.getId());
+            if (state != null && elevator instanceof ElevatorImpl) ((ElevatorImpl) elevator).restore(state);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writing) {
+            write(takeBuffers());
+            journal.close();
+        }
+    }
+
+    /**
+     * A full buffer waits for the flush, the records continue in a free buffer - or in a new one if the flush has
+     * not returned any yet
+     */
+    private ByteBuffer buffer(int bytes) {
+        if (buffer.remaining() < bytes) {
+            if (buffer.position() > 0) filledBuffers.add(buffer);
+            ByteBuffer free = freeBuffers.poll();
+            buffer = free != null && free.capacity() >= bytes ? free
+                    : ByteBuffer.allocateDirect(Math.max(BUFFER_BYTES, bytes));
+        }
+        return buffer;
+    }
+
+    /**
+     * @return buffers with the records appended so far, in the order they were filled
+     */
+    private synchronized List<ByteBuffer> takeBuffers() {
+        List<ByteBuffer> taken = new ArrayList<>(filledBuffers.size() + 1);
+        taken.addAll(filledBuffers);
+        filledBuffers.clear();
+        if (buffer.position() > 0) {
+            taken.add(buffer);
+            ByteBuffer free = freeBuffers.poll();
+            buffer = free != null ? free : ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+        return taken;
+    }
+
+    private void write(List<ByteBuffer> buffers) throws IOException {
+        for (ByteBuffer written : buffers) {
+            written.flip();
+            while (written.hasRemaining()) journal.write(written);
+            written.clear();
+        }
+        synchronized (this) {
+            for (ByteBuffer written : buffers) {
+                if (freeBuffers.size() < MAX_FREE_BUFFERS) freeBuffers.add(written);
+            }
+        }
+    }
+
+    private static void appendInstall(ByteBuffer target, int numberOfElevators, int numberOfFloors,
+                                      List<ElevatorZone> zones) {
+        target.put(INSTALL).putInt(numberOfElevators).putInt(numberOfFloors);
+        for (ElevatorZone zone : zones) {
+            target.put(ZONE).putInt(zone.getNumberOfElevators()).putInt(zone.getLowestFloor())
+                    .putInt(zone.getHighestFloor()).put((byte) (zone.isServesLobby() ? 1 : 0));
+        }
+    }
+
+    private static void appendState(ByteBuffer target, int id, ElevatorState state) {
+        long[] up = state.getPlannedStops().upBits();
+        long[] down = state.getPlannedStops().downBits();
+        target.put(STATE).putInt(id).putLong(state.getVersion())
+                .put((byte) state.getStatus().ordinal())
+                .putInt(state.currentFloor())
+                .putInt(state.getAddressedFloor())
+                .put((byte) state.getCurrentDirection().ordinal())
+                .putInt(up.length);
+        for (long word : up) target.putLong(word);
+        for (long word : down) target.putLong(word);
+    }
+
+    private static int stateBytes(ElevatorState state) {
+        return STATE_HEADER_BYTES + 2 * Long.BYTES * state.getPlannedStops().upBits().length;
+    }
+
+    private static int wordsOf(int numberOfFloors) {
+        return (numberOfFloors + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Latest installation and states read from the snapshot and the journal
+     */
+    private static final class Recovery {
+
+        private int numberOfElevators;
+
+        private int numberOfFloors;
+
+        private final List<ElevatorZone> zones = new ArrayList<>();
+
+        private final Map<Integer, ElevatorState> states = new HashMap<>();
+
+        /**
+         * @return length of the complete records in the file
+         */
+        private long read(Path file) throws IOException {
+            if (!Files.exists(file)) return 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int complete = 0;
+                try {
+                    while (records.hasRemaining()) {
+                        if (!readRecord(records)) break;
+                        complete = records.position();
+                    }
+                } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                    // torn record at the end of the file
+                }
+                return complete;
+            }
+        }
+
+        private boolean readRecord(ByteBuffer records) {
+            byte type = records.get();
+            if (type == INSTALL) {
+                numberOfElevators = records.getInt();
+                numberOfFloors = records.getInt();
+                zones.clear();
+                states.clear();
+                return true;
+            }
+            if (type == ZONE) {
+                zones.add(new ElevatorZone(records.getInt(), records.getInt(), records.getInt(), records.get() != 0));
+                return true;
+            }
+            if (type != STATE) return false;
+
+            int id = records.getInt();
+            long version = records.getLong();
+            Status status = STATUSES[records.get()];
+            int currentFloor = records.getInt();
+            int addressedFloor = records.getInt();
+            Direction direction = DIRECTIONS[records.get()];
+            int words = records.getInt();
+            if (words != wordsOf(numberOfFloors)) return false;
+            long[] up = new long[words];
+            long[] down = new long[words];
+            for (int i = 0; i < words; i++) up[i] = records.getLong();
+            for (int i = 0; i < words; i++) down[i] = records.getLong();
+
+            ElevatorState latest = states.get(id);
+            if (latest == null || latest.getVersion() < version) {
+                states.put(id, ElevatorState.recovered(version, status, currentFloor, addressedFloor, direction,
+                        PlannedStops.of(numberOfFloors, up, down)));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorMetricsReport;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.LatencySummary;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.AtomicHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograms of the times measured in one building - wait time from the hall call until the chosen elevator
+ * stops on the floor, ride time from choosing the floor inside the elevator until it stops there and the time
+ * the controller spends choosing the elevator. Wait and ride times of the building are kept in histograms, the ones
+ * of every elevator only as the count, total and maximum - a pair of histograms per elevator would take tens of
+ * kilobytes, gigabytes in the largest buildings.
+ * <p>
+ * Pending calls and the totals of the elevators are kept in arrays allocated when the elevators are installed, so
+ * recording does not allocate and does not block. A floor chosen inside the elevator takes 4 bytes per elevator and
+ * floor: the lower 32 bits of the time it was chosen at, which give the right ride time up to
+ * {@link #MAX_TIME_MILLIS}
+ */
+public class ElevatorMetrics implements ElevatorListener {
+
+    /**
+     * The longest wait or ride time tracked, longer ones are recorded as this one
+     */
+    static final long MAX_TIME_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * The longest dispatch latency tracked, longer ones are recorded as this one
+     */
+    static final long MAX_DISPATCH_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final int PRECISION = 3;
+
+    private final SimulationClock clock;
+
+    private final AtomicHistogram waitTimes = new AtomicHistogram(MAX_TIME_MILLIS, PRECISION);
+
+    private final AtomicHistogram rideTimes = new AtomicHistogram(MAX_TIME_MILLIS, PRECISION);
+
+    private final AtomicHistogram dispatchLatencies = new AtomicHistogram(MAX_DISPATCH_NANOS, PRECISION);
+
+    private volatile Installation installation = new Installation(0, 0);
+
+    /**
+     * Class constructor
+     *
+     * @param clock clock the elevators are advanced with
+     */
+    public ElevatorMetrics(SimulationClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Used to summarize the histogram
+     *
+     * @param histogram histogram of the measured times
+     * @return count, mean, percentiles and maximum of the times
+     */
+    public static LatencySummary summarize(AbstractHistogram histogram) {
+        return new LatencySummary(histogram.getTotalCount(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+
+    /**
+     * Used to start tracking newly installed elevators, pending calls of the previous ones are forgotten
+     *
+     * @param numberOfElevators number of installed elevators
+     * @param numberOfFloors    number of floors in the building
+     */
+    void installed(int numberOfElevators, int numberOfFloors) {
+        installation = new Installation(numberOfElevators, numberOfFloors);
+    }
+
+    /**
+     * Used to record the dispatched hall call, the wait time is recorded once the elevator stops on the floor
+     *
+     * @param elevatorId    id of the elevator chosen to serve the call
+     * @param floor         number of the floor the call was made from
+     * @param direction     direction chosen in the call
+     * @param dispatchNanos time spent choosing the elevator in nanoseconds
+     */
+    void hallCalled(int elevatorId, int floor, Direction direction, long dispatchNanos) {
+        dispatchLatencies.recordValue(Math.min(dispatchNanos, MAX_DISPATCH_NANOS));
+        Installation current = installation;
+        if (!current.hasFloor(floor)) return;
+        int call = floor * 2 + (direction == Direction.DOWN ? 1 : 0);
+        current.hallCallSince.compareAndSet(call, 0, Math.max(1, clock.currentTimeMillis()));
+        current.hallCallElevator.set(call, elevatorId);
+    }
+
+    /**
+     * Used to record the floor chosen inside the elevator, the ride time is recorded once the elevator stops there
+     *
+     * @param elevatorId id of the elevator
+     * @param floor      number of the chosen floor
+     */
+    void floorChosen(int elevatorId, int floor) {
+        Installation current = installation;
+        if (!current.hasFloor(floor) || !current.hasElevator(elevatorId)) return;
+        int chosenAt = (int) clock.currentTimeMillis();
+        current.rideSince.compareAndSet(current.ride(elevatorId, floor), 0, chosenAt == 0 ? 1 : chosenAt);
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        if (!(current instanceof ElevatorState)) return;
+        int floor = current.currentFloor();
+        if (!((ElevatorState) current).isStoppedAt(floor)) return;
+
+        Installation installed = installation;
+        int elevatorId = elevator.getId();
+        if (!installed.hasFloor(floor) || !installed.hasElevator(elevatorId)) return;
+        long now = clock.currentTimeMillis();
+        for (int call = floor * 2; call <= floor * 2 + 1; call++) {
+            long since = installed.hallCallSince.get(call);
+            if (since != 0 && installed.hallCallElevator.get(call) == elevatorId
+                    && installed.hallCallSince.compareAndSet(call, since, 0)) {
+                installed.waits.record(waitTimes, elevatorId, now - since);
+            }
+        }
+        int ride = installed.ride(elevatorId, floor);
+        int since = installed.rideSince.get(ride);
+        if (since != 0 && installed.rideSince.compareAndSet(ride, since, 0)) {
+            installed.rides.record(rideTimes, elevatorId, (int) now - since);
+        }
+    }
+
+    /**
+     * @return summaries of the times measured in the building and per elevator
+     */
+    public ElevatorMetricsReport report() {
+        Map<Integer, ElevatorMetricsReport> perElevator = new TreeMap<>();
+        Installation current = installation;
+        for (int id = 0; id < current.numberOfElevators; id++) {
+            if (current.waits.count(id) > 0 || current.rides.count(id) > 0) {
+                perElevator.put(id, new ElevatorMetricsReport(current.waits.summarize(id),
+                        current.rides.summarize(id), null, null));
+            }
+        }
+        return new ElevatorMetricsReport(summarize(waitTimes), summarize(rideTimes), summarize(dispatchLatencies),
+                Collections.unmodifiableMap(perElevator));
+    }
+
+    /**
+     * Pending calls and times of the elevators installed together
+     */
+    private static final class Installation {
+
+        private final int numberOfElevators;
+
+        private final int numberOfFloors;
+
+        private final AtomicLongArray hallCallSince;
+
+        private final AtomicIntegerArray hallCallElevator;
+
+        private final AtomicIntegerArray rideSince;
+
+        private final ElevatorTotals waits;
+
+        private final ElevatorTotals rides;
+
+        private Installation(int numberOfElevators, int numberOfFloors) {
+            this.numberOfElevators = numberOfElevators;
+            this.numberOfFloors = numberOfFloors;
+            this.hallCallSince = new AtomicLongArray(numberOfFloors * 2);
+            this.hallCallElevator = new AtomicIntegerArray(numberOfFloors * 2);
+            this.rideSince = new AtomicIntegerArray(numberOfElevators * numberOfFloors);
+            this.waits = new ElevatorTotals(numberOfElevators);
+            this.rides = new ElevatorTotals(numberOfElevators);
+        }
+
+        private boolean hasFloor(int floor) {
+            return floor >= 0 && floor < numberOfFloors;
+        }
+
+        private boolean hasElevator(int elevatorId) {
+            return elevatorId >= 0 && elevatorId < numberOfElevators;
+        }
+
+        private int ride(int elevatorId, int floor) {
+            return elevatorId * numberOfFloors + floor;
+        }
+    }
+
+    /**
+     * Count, total and maximum of the times of every elevator
+     */
+    private static final class ElevatorTotals {
+
+        private final AtomicLongArray counts;
+
+        private final AtomicLongArray totals;
+
+        private final AtomicLongArray maximums;
+
+        private ElevatorTotals(int numberOfElevators) {
+            this.counts = new AtomicLongArray(numberOfElevators);
+            this.totals = new AtomicLongArray(numberOfElevators);
+            this.maximums = new AtomicLongArray(numberOfElevators);
+        }
+
+        private void record(AtomicHistogram building, int elevatorId, long millis) {
+            long value = Math.max(0, Math.min(millis, MAX_TIME_MILLIS));
+            building.recordValue(value);
+            counts.incrementAndGet(elevatorId);
+            totals.addAndGet(elevatorId, value);
+            maximums.accumulateAndGet(elevatorId, value, Math::max);
+        }
+
+        private long count(int elevatorId) {
+            return counts.get(elevatorId);
+        }
+
+        private LatencySummary summarize(int elevatorId) {
+            return LatencySummary.ofTotals(counts.get(elevatorId), totals.get(elevatorId), maximums.get(elevatorId));
+        }
+    }
+}
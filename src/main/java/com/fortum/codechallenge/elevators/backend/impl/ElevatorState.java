@@ -0,0 +1,314 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+/**
+ * Immutable state of the {@link ElevatorImpl}.
+ * <p>
+ * Every transition returns a new instance, which lets the elevator swap its whole state with a single
+ * compare-and-set, so readers never block and concurrent writers never lose updates
+ */
+final class ElevatorState implements ElevatorSnapshot {
+
+    private final long version;
+
+    private final Status status;
+
+    private final int currentFloor;
+
+    private final int addressedFloor;
+
+    private final Direction currentDirection;
+
+    private final PlannedStops shouldStop;
+
+    private final long nextStepAt;
+
+    private final boolean stepInProgress;
+
+    private final boolean stoppedAtCurrentFloor;
+
+    private ElevatorState(long version, Status status, int currentFloor, int addressedFloor,
+                          Direction currentDirection, PlannedStops shouldStop, long nextStepAt, boolean stepInProgress,
+                          boolean stoppedAtCurrentFloor) {
+        this.version = version;
+        this.status = status;
+        this.currentFloor = currentFloor;
+        this.addressedFloor = addressedFloor;
+        this.currentDirection = currentDirection;
+        this.shouldStop = shouldStop;
+        this.nextStepAt = nextStepAt;
+        this.stepInProgress = stepInProgress;
+        this.stoppedAtCurrentFloor = stoppedAtCurrentFloor;
+    }
+
+    /**
+     * Used to create state of the just installed elevator
+     *
+     * @param currentFloor   number of floor on which the elevator is installed
+     * @param numberOfFloors number of floors in the building
+     * @return waiting elevator state with no stops planned
+     */
+    static ElevatorState installed(int currentFloor, int numberOfFloors) {
+        return new ElevatorState(0, Status.WAIT, currentFloor, currentFloor, Direction.NONE,
+                PlannedStops.none(numberOfFloors), 0, false, false);
+    }
+
+    /**
+     * Used to recreate state of the elevator, e.g. after restart. The step which was in progress is not resumed,
+     * running elevator continues with the next step
+     *
+     * @param version          version of the recovered state
+     * @param status           status of the elevator
+     * @param currentFloor     number of floor the elevator is at
+     * @param addressedFloor   number of floor the elevator is heading towards
+     * @param currentDirection direction in which the elevator is moving
+     * @param shouldStop       stops planned for the elevator
+     * @return recovered state
+     */
+    static ElevatorState recovered(long version, Status status, int currentFloor, int addressedFloor,
+                                   Direction currentDirection, PlannedStops shouldStop) {
+        return new ElevatorState(version, status, currentFloor, addressedFloor, currentDirection, shouldStop, 0,
+                false, false);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    PlannedStops getPlannedStops() {
+        return shouldStop;
+    }
+
+    /**
+     * @return time in milliseconds at which the running elevator makes its next step
+     */
+    long getNextStepAt() {
+        return nextStepAt;
+    }
+
+    /**
+     * @param floor number of the floor
+     * @return true if the elevator stands on the floor - it stopped there or waits there
+     */
+    boolean isStoppedAt(int floor) {
+        return currentFloor == floor && (stoppedAtCurrentFloor || status == Status.WAIT);
+    }
+
+    /**
+     * Passengers board the elevator going their way or the one which has just finished its run
+     *
+     * @param floor     number of the floor
+     * @param direction direction the passengers waiting on the floor go
+     * @return true if the elevator stands on the floor and takes passengers going in the direction
+     */
+    boolean isBoardingAt(int floor, Direction direction) {
+        return isStoppedAt(floor) && (status == Status.WAIT || currentDirection == direction
+                || addressedFloor == currentFloor);
+    }
+
+    /**
+     * Tells whether the running elevator will stop on the floor as it finishes its current run - on the way to the
+     * addressed floor, or on the way back if it turns there. Stops planned behind the elevator in its direction are
+     * not served before it waits, so they do not count; the stop the elevator stands at counts only if it serves
+     * the floor again on the way back
+     *
+     * @param floor number of the floor
+     * @return true if the running elevator is still going to stop on the floor
+     */
+    boolean isGoingToStopAt(int floor) {
+        if (status != Status.RUN || floor < 0 || floor >= shouldStop.numberOfFloors()) return false;
+        if (floor == addressedFloor) return true;
+        Direction plannedStop = floor == currentFloor && stoppedAtCurrentFloor
+                ? shouldStop.without(floor, currentDirection).at(floor) : shouldStop.at(floor);
+        if (plannedStop == Direction.NONE) return false;
+        boolean beforeAddressedFloor = isMovingUp() ? floor < addressedFloor : floor > addressedFloor;
+        if (isAhead(floor) && beforeAddressedFloor) {
+            return plannedStop == currentDirection || plannedStop == Direction.BOTH;
+        }
+        return plannedStop == Direction.opposite(currentDirection) && beforeAddressedFloor;
+    }
+
+    @Override
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public int currentFloor() {
+        return currentFloor;
+    }
+
+    @Override
+    public int getAddressedFloor() {
+        return addressedFloor;
+    }
+
+    @Override
+    public Direction getCurrentDirection() {
+        return currentDirection;
+    }
+
+    @Override
+    public boolean isAhead(int floorNumber) {
+        return (isMovingUp() && isLowerThan(floorNumber)) || (isMovingDown() && isHigherThan(floorNumber));
+    }
+
+    @Override
+    public boolean shouldChangeAddressedFloor(int floorNumber) {
+        return
+                (isMovingDown() && isAddressedFloorHigherThan(floorNumber))
+                        || (isMovingUp() && isAddressedFloorLowerThan(floorNumber));
+    }
+
+    /**
+     * @param toFloor number of the floor the elevator should go to
+     * @return running state heading towards the floor
+     */
+    ElevatorState started(int toFloor) {
+        Direction direction = toFloor > currentFloor ? Direction.UP : Direction.DOWN;
+        if (status == Status.RUN) {
+            return new ElevatorState(version + 1, status, currentFloor, toFloor, direction, shouldStop, nextStepAt,
+                    stepInProgress, stoppedAtCurrentFloor);
+        }
+        return new ElevatorState(version + 1, Status.RUN, currentFloor, toFloor, direction, shouldStop, 0, false,
+                false);
+    }
+
+    /**
+     * @param onFloor   number of the floor the elevator should stop on
+     * @param direction direction of the planned stop
+     * @return state with the stop planned
+     */
+    ElevatorState withPlannedStop(int onFloor, Direction direction) {
+        PlannedStops stops = shouldStop.with(onFloor, direction);
+        if (stops == shouldStop) return this;
+        return withStops(stops);
+    }
+
+    /**
+     * Previously addressed floor is kept as a planned stop
+     *
+     * @param toFloor number of the new target floor
+     * @return state heading towards the new target floor
+     */
+    ElevatorState withAddressedFloor(int toFloor) {
+        return new ElevatorState(version + 1, status, currentFloor, toFloor, currentDirection,
+                shouldStop.with(addressedFloor, currentDirection), nextStepAt, stepInProgress, stoppedAtCurrentFloor);
+    }
+
+    /**
+     * @param toFloor   number of the floor the elevator should go to
+     * @param direction direction in which the elevator should be going when it reaches the floor
+     * @return state of the elevator directed towards the floor
+     */
+    ElevatorState addressed(int toFloor, Direction direction) {
+        if (status == Status.WAIT) {
+            return started(toFloor);
+        }
+        if (currentDirection == direction && shouldChangeAddressedFloor(toFloor)) {
+            return withAddressedFloor(toFloor);
+        }
+        return withPlannedStop(toFloor, direction);
+    }
+
+    /**
+     * Advances the running elevator. Each step moves the elevator by one floor and takes
+     * {@link ElevatorImpl#FLOOR_TRAVEL_MILLIS}, or {@link ElevatorImpl#STOP_MILLIS} if the elevator stops at the
+     * reached floor
+     *
+     * @param now current time in milliseconds
+     * @return state after the step, the same instance if the elevator is not due to move
+     */
+    ElevatorState step(long now) {
+        if (status != Status.RUN || now < nextStepAt) return this;
+
+        ElevatorState state = stepInProgress ? finishStep() : this;
+
+        if (state.hasArrivedToAddressedFloor()
+                || (state.hasReachedTopFloor() && state.isMovingUp())
+                || (state.isMovingDown() && state.hasReachedLowestFloor())) {
+            return state.waiting();
+        }
+        return state.moveOneFloor(now);
+    }
+
+    private ElevatorState finishStep() {
+        PlannedStops stops = stoppedAtCurrentFloor ? shouldStop.without(currentFloor, currentDirection) : shouldStop;
+        ElevatorState state = new ElevatorState(version + 1, status, currentFloor, addressedFloor, currentDirection,
+                stops, nextStepAt, false, false);
+        return state.shouldChangeTheDirection() ? state.withDirectionChanged() : state;
+    }
+
+    private ElevatorState moveOneFloor(long now) {
+        int floor = isMovingUp() ? currentFloor + 1 : currentFloor - 1;
+        boolean shouldStopAtFloor = shouldStopAt(floor);
+        return new ElevatorState(version + 1, status, floor, addressedFloor, currentDirection, shouldStop,
+                now + (shouldStopAtFloor ? ElevatorImpl.STOP_MILLIS : ElevatorImpl.FLOOR_TRAVEL_MILLIS),
+                true, shouldStopAtFloor);
+    }
+
+    private ElevatorState waiting() {
+        return new ElevatorState(version + 1, Status.WAIT, currentFloor, addressedFloor, Direction.NONE, shouldStop,
+                nextStepAt, false, false);
+    }
+
+    private ElevatorState withDirectionChanged() {
+        int floor = isMovingUp() ? shouldStop.lowest(Direction.DOWN) : shouldStop.highest(Direction.UP);
+        return new ElevatorState(version + 1, status, currentFloor, floor, Direction.opposite(currentDirection),
+                shouldStop, nextStepAt, stepInProgress, stoppedAtCurrentFloor);
+    }
+
+    private ElevatorState withStops(PlannedStops stops) {
+        return new ElevatorState(version + 1, status, currentFloor, addressedFloor, currentDirection, stops, nextStepAt,
+                stepInProgress, stoppedAtCurrentFloor);
+    }
+
+    private boolean hasArrivedToAddressedFloor() {
+        return this.currentFloor == this.addressedFloor;
+    }
+
+    private boolean shouldStopAt(int floor) {
+        Direction plannedStop = shouldStop.at(floor);
+        return plannedStop == currentDirection || plannedStop == Direction.BOTH || floor == addressedFloor;
+    }
+
+    private boolean shouldChangeTheDirection() {
+        return hasArrivedToAddressedFloor() && shouldStop.contains(Direction.opposite(currentDirection));
+    }
+
+    private boolean isMovingUp() {
+        return this.currentDirection == Direction.UP;
+    }
+
+    private boolean isMovingDown() {
+        return this.currentDirection == Direction.DOWN;
+    }
+
+    private boolean hasReachedTopFloor() {
+        return currentFloor == shouldStop.numberOfFloors() - 1;
+    }
+
+    private boolean hasReachedLowestFloor() {
+        return currentFloor == 0;
+    }
+
+    private boolean isLowerThan(int floorNumber) {
+        return this.currentFloor < floorNumber;
+    }
+
+    private boolean isHigherThan(int floorNumber) {
+        return this.currentFloor > floorNumber;
+    }
+
+    private boolean isAddressedFloorHigherThan(int floorNumber) {
+        return this.addressedFloor > floorNumber;
+    }
+
+    private boolean isAddressedFloorLowerThan(int floorNumber) {
+        return this.addressedFloor < floorNumber;
+    }
+}
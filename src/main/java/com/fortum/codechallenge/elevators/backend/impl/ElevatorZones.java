@@ -0,0 +1,157 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Elevators of the building grouped by the {@link ElevatorZone}s they serve, with the zones serving every floor
+ * computed once at the installation.
+ * <p>
+ * Every zone has its own {@link ElevatorIndex}, so a call is dispatched among the candidates of the zones serving
+ * the calling floor - and the destination floor if it is known - only, the elevators of the other zones are never
+ * scored. Floors outside of the building are served by all zones, they are left to the checks of the controller
+ */
+final class ElevatorZones implements ElevatorListener {
+
+    /**
+     * Destination floor of the calls made without the destination
+     */
+    static final int ANY_FLOOR = -1;
+
+    private final List<ElevatorZone> zones;
+
+    private final ElevatorIndex[] indexes;
+
+    private final List<List<Elevator>> elevatorsByZone;
+
+    private final int[][] zonesByFloor;
+
+    private final int[] allZones;
+
+    private final int[] zoneOfElevator;
+
+    /**
+     * Class constructor
+     *
+     * @param zones          zones of the building, elevators are numbered zone by zone in their order
+     * @param numberOfFloors number of floors in the building
+     */
+    ElevatorZones(List<ElevatorZone> zones, int numberOfFloors) {
+        this.zones = Collections.unmodifiableList(new ArrayList<>(zones));
+        this.indexes = new ElevatorIndex[zones.size()];
+        this.elevatorsByZone = new ArrayList<>(zones.size());
+        this.allZones = new int[zones.size()];
+        int numberOfElevators = 0;
+        for (int zone = 0; zone < zones.size(); zone++) {
+            indexes[zone] = new ElevatorIndex();
+            elevatorsByZone.add(new ArrayList<>(zones.get(zone).getNumberOfElevators()));
+            allZones[zone] = zone;
+            numberOfElevators += zones.get(zone).getNumberOfElevators();
+        }
+        this.zonesByFloor = new int[Math.max(0, numberOfFloors)][];
+        for (int floor = 0; floor < numberOfFloors; floor++) {
+            int serving = 0;
+            for (ElevatorZone zone : zones) {
+                if (zone.serves(floor)) serving++;
+            }
+            zonesByFloor[floor] = new int[serving];
+            serving = 0;
+            for (int zone = 0; zone < zones.size(); zone++) {
+                if (zones.get(zone).serves(floor)) zonesByFloor[floor][serving++] = zone;
+            }
+        }
+        this.zoneOfElevator = new int[numberOfElevators];
+    }
+
+    List<ElevatorZone> getZones() {
+        return zones;
+    }
+
+    /**
+     * Used to start dispatching the elevator in the zone
+     *
+     * @param zone     index of the zone the elevator serves
+     * @param elevator elevator which should be dispatched from now on
+     */
+    void add(int zone, Elevator elevator) {
+        zoneOfElevator[elevator.getId()] = zone;
+        elevatorsByZone.get(zone).add(elevator);
+        indexes[zone].add(elevator);
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        int elevatorId = elevator.getId();
+        if (elevatorId < zoneOfElevator.length) indexes[zoneOfElevator[elevatorId]].stateChanged(elevator, previous,
+                current);
+    }
+
+    /**
+     * Finds elevators which may get the best score for the call among the elevators of the zones serving it, see
+     * {@link ElevatorIndex#candidates(int, Direction, Predicate)}
+     *
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @param toFloor         number of the destination floor, {@link #ANY_FLOOR} if it is not known
+     * @param preferred       condition the preferred elevators meet
+     * @return candidates of all zones serving the call, empty if no zone serves it
+     */
+    List<Elevator> candidates(int callingFloor, Direction chosenDirection, int toFloor, Predicate<Elevator> preferred) {
+        int[] serving = zonesOf(callingFloor);
+        if (serving.length == 1 && servesDestination(serving[0], toFloor)) {
+            return indexes[serving[0]].candidates(callingFloor, chosenDirection, preferred);
+        }
+        List<Elevator> candidates = new ArrayList<>();
+        for (int zone : serving) {
+            if (servesDestination(zone, toFloor)) {
+                candidates.addAll(indexes[zone].candidates(callingFloor, chosenDirection, preferred));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @param callingFloor number of the floor from which the elevator request was made
+     * @param toFloor      number of the destination floor, {@link #ANY_FLOOR} if it is not known
+     * @return all elevators of the zones serving the call, empty if no zone serves it
+     */
+    List<Elevator> elevators(int callingFloor, int toFloor) {
+        int[] serving = zonesOf(callingFloor);
+        if (serving.length == 1 && servesDestination(serving[0], toFloor)) {
+            return Collections.unmodifiableList(elevatorsByZone.get(serving[0]));
+        }
+        List<Elevator> elevators = new ArrayList<>();
+        for (int zone : serving) {
+            if (servesDestination(zone, toFloor)) elevators.addAll(elevatorsByZone.get(zone));
+        }
+        return elevators;
+    }
+
+    /**
+     * @param callingFloor number of the floor from which the elevator request was made
+     * @param toFloor      number of the destination floor, {@link #ANY_FLOOR} if it is not known
+     * @return true if elevators of at least one zone serve the call
+     */
+    boolean serves(int callingFloor, int toFloor) {
+        for (int zone : zonesOf(callingFloor)) {
+            if (servesDestination(zone, toFloor)) return true;
+        }
+        return false;
+    }
+
+    private int[] zonesOf(int floor) {
+        return floor >= 0 && floor < zonesByFloor.length ? zonesByFloor[floor] : allZones;
+    }
+
+    private boolean servesDestination(int zone, int toFloor) {
+        return toFloor == ANY_FLOOR || zones.get(zone).serves(toFloor);
+    }
+}
@@ -0,0 +1,62 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of the positions and statuses of all installed elevators taken together, tagged with the version
+ * of the controller state it was built from.
+ * <p>
+ * The controller keeps the view until the position or the status of any elevator changes, so all readers share the
+ * same lists instead of building new ones on every read
+ */
+final class ElevatorsView {
+
+    /**
+     * View of the controller with no elevators installed
+     */
+    static final ElevatorsView EMPTY = new ElevatorsView(0, Collections.emptyList());
+
+    private final long version;
+
+    private final List<Integer> positions;
+
+    private final List<Status> statuses;
+
+    /**
+     * Class constructor
+     *
+     * @param version   version of the controller state the view is built from
+     * @param elevators installed elevators, in the order of their ids
+     */
+    ElevatorsView(long version, Collection<Elevator> elevators) {
+        List<Integer> positions = new ArrayList<>(elevators.size());
+        List<Status> statuses = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            positions.add(snapshot.currentFloor());
+            statuses.add(snapshot.getStatus());
+        }
+        this.version = version;
+        this.positions = Collections.unmodifiableList(positions);
+        this.statuses = Collections.unmodifiableList(statuses);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    List<Integer> getPositions() {
+        return positions;
+    }
+
+    List<Status> getStatuses() {
+        return statuses;
+    }
+}
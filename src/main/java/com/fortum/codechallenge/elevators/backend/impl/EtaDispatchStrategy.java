@@ -0,0 +1,89 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.Collection;
+
+/**
+ * Strategy choosing the elevator which will stop on the calling floor the soonest.
+ * <p>
+ * Estimated time of arrival is found by simulating the remaining route of the elevator with the call added, step
+ * by step with the same transitions the elevator makes when it is running - so the stops already planned for the
+ * elevator and the time it spends travelling between floors ({@link ElevatorImpl#FLOOR_TRAVEL_MILLIS}) and stopping
+ * ({@link ElevatorImpl#STOP_MILLIS}) are taken into account. Elevators which cannot be faster than the best one
+ * found so far, even going straight to the calling floor, are not simulated.
+ * <p>
+ * Time of the nearly full elevator is lengthened by the time of travelling through the whole building, full elevators
+ * are not chosen.
+ * <p>
+ * In case of equal times the elevator with the higher id is chosen
+ */
+public class EtaDispatchStrategy implements DispatchStrategy {
+
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    @Override
+    public Elevator chooseElevator(Collection<Elevator> candidates, int callingFloor, Direction chosenDirection,
+                                   int numberOfFloors, long now) {
+        long bestEta = UNREACHABLE;
+        Elevator chosenElevator = null;
+        for (Elevator elevator : candidates) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getStatus() == Status.OUT_OF_SERVICE || !(snapshot instanceof ElevatorState)
+                    || DispatchStrategy.isFull(elevator)) {
+                continue;
+            }
+            long penalty = DispatchStrategy.isNearlyFull(elevator)
+                    ? numberOfFloors * ElevatorImpl.FLOOR_TRAVEL_MILLIS : 0;
+            if (lowerBound(snapshot, callingFloor) + penalty > bestEta) continue;
+
+            long eta = estimateTimeOfArrival((ElevatorState) snapshot, callingFloor, chosenDirection, now);
+            if (eta != UNREACHABLE) eta += penalty;
+            if (chosenElevator == null || eta < bestEta || (eta == bestEta && elevator.getId() > chosenElevator.getId())) {
+                bestEta = eta;
+                chosenElevator = elevator;
+            }
+        }
+        return chosenElevator;
+    }
+
+    @Override
+    public boolean scoresAllElevators() {
+        return true;
+    }
+
+    /**
+     * Simulates the elevator directed to the calling floor until it stops there
+     *
+     * @param state           current state of the elevator
+     * @param callingFloor    number of the floor from which the elevator request was made
+     * @param chosenDirection direction chosen in the request
+     * @param now             current time of the simulation in milliseconds
+     * @return milliseconds until the elevator stops on the calling floor, {@link Long#MAX_VALUE} if it would not
+     * stop there
+     */
+    long estimateTimeOfArrival(ElevatorState state, int callingFloor, Direction chosenDirection, long now) {
+        ElevatorState simulated = state.addressed(callingFloor, chosenDirection);
+        int maxSteps = 4 * simulated.getPlannedStops().numberOfFloors() + 4;
+        long time = now;
+        for (int step = 0; step <= maxSteps; step++) {
+            if (simulated.isStoppedAt(callingFloor) && (step > 0 || simulated.getCurrentDirection() == chosenDirection)) {
+                return time - now;
+            }
+            if (simulated.getStatus() != Status.RUN) return UNREACHABLE;
+            time = Math.max(time, simulated.getNextStepAt());
+            simulated = simulated.step(time);
+        }
+        return UNREACHABLE;
+    }
+
+    /**
+     * @return time in which the elevator could reach the floor if it went straight there without stopping
+     */
+    private static long lowerBound(ElevatorSnapshot snapshot, int callingFloor) {
+        return Math.max(0, Math.abs(snapshot.currentFloor() - callingFloor) - 1) * ElevatorImpl.FLOOR_TRAVEL_MILLIS;
+    }
+}
@@ -0,0 +1,103 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.Collection;
+
+/**
+ * Strategy choosing the elevator by the score based on its direction and distance from the calling floor.
+ * Score of the elevator will be the best if:
+ * directions of the moving elevator and the one chosen by passenger are the same
+ * elevator is yet to come
+ * the closer elevator is the higher score it will get
+ * elevator is not nearly full - its score is lowered by the number of floors, full elevators are not chosen
+ * <p>
+ * In case of equal scores the elevator with the higher id is chosen
+ */
+public class HeuristicDispatchStrategy implements DispatchStrategy {
+
+    @Override
+    public Elevator chooseElevator(Collection<Elevator> candidates, int callingFloor, Direction chosenDirection,
+                                   int numberOfFloors, long now) {
+        int bestScore = -numberOfFloors * 3;
+        Elevator chosenElevator = null;
+        for (Elevator elevator : candidates) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getStatus() == Status.OUT_OF_SERVICE || DispatchStrategy.isFull(elevator)) continue;
+
+            int currentScore = calculateElevatorScore(snapshot, callingFloor, chosenDirection, numberOfFloors);
+            if (DispatchStrategy.isNearlyFull(elevator)) currentScore -= numberOfFloors;
+
+            if (chosenElevator == null || currentScore > bestScore
+                    || (currentScore == bestScore && elevator.getId() > chosenElevator.getId())) {
+                bestScore = currentScore;
+                chosenElevator = elevator;
+            }
+        }
+        return chosenElevator;
+    }
+
+    int calculateElevatorScore(ElevatorSnapshot elevator, int callingFloor, Direction chosenDirection,
+                               int numberOfFloors) {
+        Direction elevatorDirection = elevator.getCurrentDirection();
+        int elevatorFloor = elevator.currentFloor();
+
+        if (elevator.getStatus() == Status.WAIT) {
+            return scoreForWaitingElevator(elevatorFloor, callingFloor);
+        }
+        if (isElevatorMovingInTheSameDirection(elevatorDirection, chosenDirection)) {
+            if (elevator.isAhead(callingFloor)) return scoreForSameDirectionElevatorAhead(elevatorFloor, callingFloor);
+            if (isMovingDown(elevatorDirection))
+                return scoreForSameDirectionElevatorPassedMovingDown(elevatorFloor, callingFloor, numberOfFloors);
+            return scoreForSameDirectionElevatorPassedMovingUp(elevatorFloor, callingFloor, numberOfFloors);
+        }
+        if (isMovingDown(elevatorDirection)) return scoreForDifferentDirectionMovingDown(elevatorFloor, callingFloor);
+        return scoreForDifferentDirectionMovingUp(elevatorFloor, callingFloor, numberOfFloors);
+    }
+
+    private int scoreForSameDirectionElevatorAhead(int elevatorFloor, int callingFloor) {
+        return -distanceBetweenFloors(elevatorFloor, callingFloor) + 5;
+    }
+
+    private int scoreForWaitingElevator(int elevatorFloor, int callingFloor) {
+        return -distanceBetweenFloors(elevatorFloor, callingFloor);
+
+    }
+
+    private int scoreForSameDirectionElevatorPassedMovingDown(int elevatorFloor, int callingFloor,
+                                                              int numberOfFloors) {
+        return -elevatorFloor - numberOfFloors - distanceFromHighestFloor(callingFloor, numberOfFloors);
+    }
+
+    private int scoreForDifferentDirectionMovingDown(int elevatorFloor, int callingFloor) {
+        return -elevatorFloor - callingFloor;
+    }
+
+    private int scoreForDifferentDirectionMovingUp(int elevatorFloor, int callingFloor, int numberOfFloors) {
+        return -distanceFromHighestFloor(elevatorFloor, numberOfFloors)
+                - distanceFromHighestFloor(callingFloor, numberOfFloors);
+    }
+
+    private int scoreForSameDirectionElevatorPassedMovingUp(int elevatorFloor, int callingFloor, int numberOfFloors) {
+        return -numberOfFloors - callingFloor - distanceFromHighestFloor(elevatorFloor, numberOfFloors);
+    }
+
+    private boolean isElevatorMovingInTheSameDirection(Direction elevatorDirection, Direction chosenDirection) {
+        return elevatorDirection == chosenDirection;
+    }
+
+    private boolean isMovingDown(Direction direction) {
+        return direction == Direction.DOWN;
+    }
+
+    private int distanceBetweenFloors(int currentFloor, int callingFloor) {
+        return Math.abs(currentFloor - callingFloor);
+    }
+
+    private int distanceFromHighestFloor(int callingFloor, int numberOfFloors) {
+        return Math.abs(numberOfFloors - callingFloor);
+    }
+}
@@ -0,0 +1,198 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parks idle elevators on the floors where the next calls are expected.
+ * <p>
+ * Calls are counted per floor and per {@link #SLOT_MILLIS} slot of the day, so the demand learned from the past days
+ * predicts the demand at the same time of the next days - e.g. the lobby in the morning and the office floors in the
+ * evening. Elevators which have been waiting for at least the idle time are sent to the floors with the highest
+ * demand in the current and the next slot, each of them to a different part of the building, so that a parked
+ * elevator is close to as many of the expected calls as possible. Until enough calls are learned for the slot the
+ * elevators stay where they stopped
+ */
+public class IdleParking implements ElevatorListener {
+
+    /**
+     * Length of the part of the day in which the calls are counted together
+     */
+    public static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    /**
+     * Number of calls in the current and the next slot below which the demand is not predicted
+     */
+    static final int MIN_CALLS = 10;
+
+    private static final int SLOTS = (int) (TimeUnit.DAYS.toMillis(1) / SLOT_MILLIS);
+
+    private static final long NOT_IDLE = -1;
+
+    private final SimulationClock clock;
+
+    private final long idleMillis;
+
+    private volatile Installation installation = new Installation(0, 0, 0);
+
+    /**
+     * Class constructor
+     *
+     * @param clock      source of the time the calls are counted and the elevators are idle by
+     * @param idleMillis time in milliseconds the elevator should be waiting before it is parked
+     */
+    public IdleParking(SimulationClock clock, long idleMillis) {
+        this.clock = clock;
+        this.idleMillis = idleMillis;
+    }
+
+    /**
+     * Used to start parking newly installed elevators, the learned demand is kept if the number of floors is the same
+     *
+     * @param numberOfElevators number of installed elevators
+     * @param numberOfFloors    number of floors in the building
+     */
+    void installed(int numberOfElevators, int numberOfFloors) {
+        Installation previous = installation;
+        Installation installed = new Installation(numberOfElevators, numberOfFloors, clock.currentTimeMillis());
+        if (previous.numberOfFloors == numberOfFloors) {
+            for (int i = 0; i < previous.calls.length(); i++) installed.calls.set(i, previous.calls.get(i));
+        }
+        installation = installed;
+    }
+
+    /**
+     * Used to learn the call made on the floor
+     *
+     * @param floor number of the floor the elevator was called from
+     */
+    void called(int floor) {
+        Installation current = installation;
+        if (floor < 0 || floor >= current.numberOfFloors) return;
+        current.calls.incrementAndGet(slot(clock.currentTimeMillis()) * current.numberOfFloors + floor);
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        if (previous.getStatus() == current.getStatus()) return;
+        Installation installed = installation;
+        if (elevator.getId() >= installed.idleSince.length()) return;
+        installed.idleSince.set(elevator.getId(),
+                current.getStatus() == Status.WAIT ? clock.currentTimeMillis() : NOT_IDLE);
+    }
+
+    /**
+     * Used to send the idle elevators to the floors with the highest predicted demand, elevators which are already
+     * close to such a floor are not moved. Elevators waiting for a shorter time cover the floors around them
+     *
+     * @param elevators installed elevators
+     * @return number of elevators which were sent to park
+     */
+    int reposition(Collection<Elevator> elevators) {
+        Installation installed = installation;
+        int floors = installed.numberOfFloors;
+        if (floors == 0 || elevators.isEmpty()) return 0;
+        long now = clock.currentTimeMillis();
+        int[] demand = installed.demand(slot(now));
+        if (sum(demand) < MIN_CALLS) return 0;
+
+        List<Elevator> idle = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        int radius = Math.max(1, floors / (2 * elevators.size()));
+        for (Elevator elevator : elevators) {
+            ElevatorSnapshot snapshot = elevator.getSnapshot();
+            if (snapshot.getStatus() != Status.WAIT || elevator.getId() >= installed.idleSince.length()) continue;
+            long idleSince = installed.idleSince.get(elevator.getId());
+            if (idleSince != NOT_IDLE && now - idleSince >= idleMillis) {
+                idle.add(elevator);
+            } else {
+                cover(demand, snapshot.currentFloor(), radius);
+            }
+        }
+        for (int i = 0; i < idle.size(); i++) {
+            int target = busiest(demand);
+            if (demand[target] == 0) break;
+            targets.add(target);
+            cover(demand, target, radius);
+        }
+
+        int parked = 0;
+        for (int target : targets) {
+            Elevator nearest = null;
+            for (Elevator elevator : idle) {
+                if (!elevator.servesFloor(target)) continue;
+                if (nearest == null || distance(elevator, target) < distance(nearest, target)) nearest = elevator;
+            }
+            if (nearest == null) continue;
+            idle.remove(nearest);
+            if (distance(nearest, target) <= radius / 2) continue;
+            nearest.address(target, target > nearest.currentFloor() ? Direction.UP : Direction.DOWN);
+            parked++;
+        }
+        return parked;
+    }
+
+    private static int slot(long timeMillis) {
+        return (int) (Math.floorMod(timeMillis, TimeUnit.DAYS.toMillis(1)) / SLOT_MILLIS);
+    }
+
+    private static void cover(int[] demand, int floor, int radius) {
+        for (int i = Math.max(0, floor - radius); i <= Math.min(demand.length - 1, floor + radius); i++) demand[i] = 0;
+    }
+
+    private static int busiest(int[] demand) {
+        int busiest = 0;
+        for (int i = 1; i < demand.length; i++) {
+            if (demand[i] > demand[busiest]) busiest = i;
+        }
+        return busiest;
+    }
+
+    private static int sum(int[] demand) {
+        int sum = 0;
+        for (int calls : demand) sum += calls;
+        return sum;
+    }
+
+    private static int distance(Elevator elevator, int floor) {
+        return Math.abs(elevator.currentFloor() - floor);
+    }
+
+    private static final class Installation {
+
+        private final int numberOfFloors;
+
+        private final AtomicIntegerArray calls;
+
+        private final AtomicLongArray idleSince;
+
+        private Installation(int numberOfElevators, int numberOfFloors, long installedAt) {
+            this.numberOfFloors = numberOfFloors;
+            this.calls = new AtomicIntegerArray(SLOTS * numberOfFloors);
+            this.idleSince = new AtomicLongArray(numberOfElevators);
+            for (int i = 0; i < numberOfElevators; i++) idleSince.set(i, installedAt);
+        }
+
+        /**
+         * @return calls learned per floor in the slot and in the next one
+         */
+        private int[] demand(int slot) {
+            int[] demand = new int[numberOfFloors];
+            int next = (slot + 1) % SLOTS;
+            for (int floor = 0; floor < numberOfFloors; floor++) {
+                demand[floor] = calls.get(slot * numberOfFloors + floor) + calls.get(next * numberOfFloors + floor);
+            }
+            return demand;
+        }
+    }
+}
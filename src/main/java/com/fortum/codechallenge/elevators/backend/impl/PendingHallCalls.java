@@ -0,0 +1,148 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Hall calls which wait for the elevators assigned to them, one entry per floor and direction.
+ * <p>
+ * A button pressed again on the same floor in the same direction is served by the elevator already on its way, so
+ * the controller reserves the call here before dispatching it. Only the first of concurrent presses gets the
+ * reservation and dispatches the call, the others wait the few microseconds until the elevator is assigned. The
+ * entry is cleared once its elevator stops on the floor taking passengers in the direction of the call. An entry is
+ * trusted only while its elevator is still going to stop on the floor - an elevator which went to wait elsewhere or
+ * passed the floor by is dispatched again by the next press
+ */
+final class PendingHallCalls implements ElevatorListener {
+
+    /**
+     * Value returned for a call which should be dispatched by the caller
+     */
+    static final int NONE = -1;
+
+    /**
+     * Entry of the call which is being dispatched right now
+     */
+    private static final int RESERVED = -1;
+
+    /**
+     * Ids of the assigned elevators increased by one, so the zero of a new array means no elevator
+     */
+    private final AtomicIntegerArray elevatorByCall;
+
+    private final Elevator[] elevators;
+
+    /**
+     * Class constructor
+     *
+     * @param numberOfElevators number of the installed elevators
+     * @param numberOfFloors    number of floors in the building
+     */
+    PendingHallCalls(int numberOfElevators, int numberOfFloors) {
+        this.elevatorByCall = new AtomicIntegerArray(Math.max(0, numberOfFloors) * 2);
+        this.elevators = new Elevator[Math.max(0, numberOfElevators)];
+    }
+
+    /**
+     * Used to make the elevator known to the calls, it should be called before any call is assigned to it
+     *
+     * @param elevator installed elevator
+     */
+    void add(Elevator elevator) {
+        elevators[elevator.getId()] = elevator;
+    }
+
+    /**
+     * Used to look the call up before dispatching it. If no elevator is going to serve the call, it is reserved for
+     * the caller, who has to {@link #assign} or {@link #release} it
+     *
+     * @param floor     number of the calling floor
+     * @param direction direction of the call
+     * @return id of the elevator going to serve the call, {@link #NONE} if the caller should dispatch it
+     */
+    int reserve(int floor, Direction direction) {
+        int call = call(floor, direction);
+        if (call < 0) return NONE;
+        while (true) {
+            int entry = elevatorByCall.get(call);
+            if (entry == RESERVED) {
+                Thread.onSpinWait();
+            } else if (entry == 0) {
+                if (elevatorByCall.compareAndSet(call, 0, RESERVED)) return NONE;
+            } else if (isGoingToStopAt(elevators[entry - 1], floor)) {
+                return entry - 1;
+            } else if (elevatorByCall.compareAndSet(call, entry, RESERVED)) {
+                return NONE;
+            }
+        }
+    }
+
+    /**
+     * Used to assign the reserved call to the dispatched elevator once it is addressed to the floor, so the entry is
+     * trusted right away. If the elevator arrives before that, {@link #clearIfBoarding} clears the entry
+     *
+     * @param floor     number of the calling floor
+     * @param direction direction of the call
+     * @param elevator  elevator dispatched to the call
+     */
+    void assign(int floor, Direction direction, Elevator elevator) {
+        int call = call(floor, direction);
+        if (call >= 0) elevatorByCall.set(call, elevator.getId() + 1);
+    }
+
+    /**
+     * Used to give the reserved call up when it could not be dispatched
+     *
+     * @param floor     number of the calling floor
+     * @param direction direction of the call
+     */
+    void release(int floor, Direction direction) {
+        int call = call(floor, direction);
+        if (call >= 0) elevatorByCall.compareAndSet(call, RESERVED, 0);
+    }
+
+    /**
+     * Used to clear the call which the elevator serves right away, as it already stands on the floor
+     *
+     * @param floor     number of the calling floor
+     * @param direction direction of the call
+     * @param elevator  elevator dispatched to the call
+     */
+    void clearIfBoarding(int floor, Direction direction, Elevator elevator) {
+        int call = call(floor, direction);
+        if (call >= 0 && isBoardingAt(elevator.getSnapshot(), floor, direction)) {
+            elevatorByCall.compareAndSet(call, elevator.getId() + 1, 0);
+        }
+    }
+
+    @Override
+    public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+        int floor = current.currentFloor();
+        for (Direction direction : new Direction[]{Direction.UP, Direction.DOWN}) {
+            int call = call(floor, direction);
+            if (call >= 0 && isBoardingAt(current, floor, direction)) {
+                elevatorByCall.compareAndSet(call, elevator.getId() + 1, 0);
+            }
+        }
+    }
+
+    private int call(int floor, Direction direction) {
+        if (floor < 0 || floor * 2 >= elevatorByCall.length() || direction == null || direction == Direction.NONE) {
+            return -1;
+        }
+        return floor * 2 + (direction == Direction.DOWN ? 1 : 0);
+    }
+
+    private static boolean isGoingToStopAt(Elevator elevator, int floor) {
+        ElevatorSnapshot snapshot = elevator.getSnapshot();
+        return snapshot instanceof ElevatorState && ((ElevatorState) snapshot).isGoingToStopAt(floor);
+    }
+
+    private static boolean isBoardingAt(ElevatorSnapshot snapshot, int floor, Direction direction) {
+        return snapshot instanceof ElevatorState && ((ElevatorState) snapshot).isBoardingAt(floor, direction);
+    }
+}
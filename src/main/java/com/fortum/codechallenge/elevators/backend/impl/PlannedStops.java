@@ -0,0 +1,185 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+
+/**
+ * Immutable set of stops planned for an elevator, one {@link Direction} per floor.
+ * <p>
+ * Stops are kept in two bitsets - one for stops planned in direction up and one for direction down, floor with both
+ * bits set is served in {@link Direction#BOTH} directions. Queries for the highest and the lowest stop and for any
+ * stop in given direction work on whole 64-floor words. Every change creates a new instance sharing the untouched
+ * bitset, so the stops can be shared between threads without synchronization
+ */
+final class PlannedStops {
+
+    private static final int WORD_SHIFT = 6;
+
+    private final int numberOfFloors;
+
+    private final long[] up;
+
+    private final long[] down;
+
+    private PlannedStops(int numberOfFloors, long[] up, long[] down) {
+        this.numberOfFloors = numberOfFloors;
+        this.up = up;
+        this.down = down;
+    }
+
+    /**
+     * Used to create set without any stops planned
+     *
+     * @param numberOfFloors number of floors in the building
+     * @return PlannedStops with no stop planned
+     */
+    static PlannedStops none(int numberOfFloors) {
+        int words = (numberOfFloors + Long.SIZE - 1) >>> WORD_SHIFT;
+        return new PlannedStops(numberOfFloors, new long[words], new long[words]);
+    }
+
+    /**
+     * Used to recreate the stops out of their bitsets
+     *
+     * @param numberOfFloors number of floors in the building
+     * @param up             bitset of the stops planned in direction up, it must not be modified afterwards
+     * @param down           bitset of the stops planned in direction down, it must not be modified afterwards
+     * @return PlannedStops with the given stops planned
+     */
+    static PlannedStops of(int numberOfFloors, long[] up, long[] down) {
+        return new PlannedStops(numberOfFloors, up, down);
+    }
+
+    /**
+     * @return bitset of the stops planned in direction up, it must not be modified
+     */
+    long[] upBits() {
+        return up;
+    }
+
+    /**
+     * @return bitset of the stops planned in direction down, it must not be modified
+     */
+    long[] downBits() {
+        return down;
+    }
+
+    int numberOfFloors() {
+        return numberOfFloors;
+    }
+
+    /**
+     * @param floor number of the floor
+     * @return direction of the stop planned on the floor, {@link Direction#NONE} if there is none
+     */
+    Direction at(int floor) {
+        checkFloor(floor);
+        boolean stopUp = isSet(up, floor);
+        boolean stopDown = isSet(down, floor);
+        if (stopUp && stopDown) return Direction.BOTH;
+        if (stopUp) return Direction.UP;
+        if (stopDown) return Direction.DOWN;
+        return Direction.NONE;
+    }
+
+    /**
+     * Plans the stop, second stop planned on the same floor is served in both directions
+     *
+     * @param floor     number of the floor
+     * @param direction direction of the stop
+     * @return PlannedStops with the stop planned
+     */
+    PlannedStops with(int floor, Direction direction) {
+        Direction current = at(floor);
+        if (current == Direction.NONE) return set(floor, direction);
+        if (current != Direction.BOTH) return set(floor, Direction.BOTH);
+        return this;
+    }
+
+    /**
+     * Removes the stop served when going in given direction
+     *
+     * @param floor     number of the floor
+     * @param direction direction the elevator was going when it stopped
+     * @return PlannedStops without the served stop
+     */
+    PlannedStops without(int floor, Direction direction) {
+        return set(floor, at(floor) == Direction.BOTH ? Direction.opposite(direction) : Direction.NONE);
+    }
+
+    boolean contains(Direction direction) {
+        for (int word = 0; word < up.length; word++) {
+            if (matching(word, direction) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param direction direction of the stop
+     * @return number of the highest floor with stop planned exactly in given direction, -1 if there is none
+     */
+    int highest(Direction direction) {
+        for (int word = up.length - 1; word >= 0; word--) {
+            long bits = matching(word, direction);
+            if (bits != 0) return (word << WORD_SHIFT) + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+        }
+        return -1;
+    }
+
+    /**
+     * @param direction direction of the stop
+     * @return number of the lowest floor with stop planned exactly in given direction, -1 if there is none
+     */
+    int lowest(Direction direction) {
+        for (int word = 0; word < up.length; word++) {
+            long bits = matching(word, direction);
+            if (bits != 0) return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    /**
+     * @return bits of the floors in the word which have stop planned exactly in given direction
+     */
+    private long matching(int word, Direction direction) {
+        switch (direction) {
+            case UP:
+                return up[word] & ~down[word];
+            case DOWN:
+                return down[word] & ~up[word];
+            case BOTH:
+                return up[word] & down[word];
+            default:
+                return ~(up[word] | down[word]) & floorsMask(word);
+        }
+    }
+
+    private long floorsMask(int word) {
+        int floorsInWord = numberOfFloors - (word << WORD_SHIFT);
+        return floorsInWord >= Long.SIZE ? -1L : (1L << floorsInWord) - 1;
+    }
+
+    private PlannedStops set(int floor, Direction direction) {
+        boolean stopUp = direction == Direction.UP || direction == Direction.BOTH;
+        boolean stopDown = direction == Direction.DOWN || direction == Direction.BOTH;
+        long[] newUp = isSet(up, floor) == stopUp ? up : flip(up, floor);
+        long[] newDown = isSet(down, floor) == stopDown ? down : flip(down, floor);
+        if (newUp == up && newDown == down) return this;
+        return new PlannedStops(numberOfFloors, newUp, newDown);
+    }
+
+    private void checkFloor(int floor) {
+        if (floor < 0 || floor >= numberOfFloors) {
+            throw new IndexOutOfBoundsException("Floor " + floor + " is out of range 0-" + (numberOfFloors - 1));
+        }
+    }
+
+    private static boolean isSet(long[] bits, int floor) {
+        return (bits[floor >>> WORD_SHIFT] & (1L << floor)) != 0;
+    }
+
+    private static long[] flip(long[] bits, int floor) {
+        long[] copy = bits.clone();
+        copy[floor >>> WORD_SHIFT] ^= 1L << floor;
+        return copy;
+    }
+}
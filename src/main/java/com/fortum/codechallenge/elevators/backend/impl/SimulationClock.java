@@ -0,0 +1,20 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+/**
+ * Source of time used by the {@link SimulationScheduler} to advance elevators
+ */
+@FunctionalInterface
+public interface SimulationClock {
+
+    /**
+     * Wall-clock time source
+     */
+    SimulationClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Used to get the current time of the simulation
+     *
+     * @return current time in milliseconds
+     */
+    long currentTimeMillis();
+}
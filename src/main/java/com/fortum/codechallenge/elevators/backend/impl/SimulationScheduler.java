@@ -0,0 +1,120 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation engine advancing every running {@link ElevatorImpl} on a fixed tick.
+ * <p>
+ * One periodic task is scheduled on the given executor no matter how many elevators are installed, so the number
+ * of threads used by the simulation does not depend on the size of the building
+ */
+public class SimulationScheduler {
+
+    /**
+     * Default interval between two consecutive ticks in milliseconds
+     */
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimulationScheduler.class);
+
+    private final Set<ElevatorImpl> runningElevators = ConcurrentHashMap.newKeySet();
+
+    private final SimulationClock clock;
+
+    /**
+     * Class constructor, ticks are measured with the wall-clock
+     *
+     * @param executor   executor on which the ticks will be scheduled
+     * @param tickMillis interval between two consecutive ticks in milliseconds
+     */
+    public SimulationScheduler(ScheduledExecutorService executor, long tickMillis) {
+        this(SimulationClock.SYSTEM);
+        executor.scheduleAtFixedRate(this::safeTick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Class constructor for schedulers which execute ticks on their own
+     *
+     * @param clock source of time passed to the elevators on every tick
+     */
+    protected SimulationScheduler(SimulationClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Scheduler shared by the elevators and controllers created without an explicit one
+     *
+     * @return default scheduler running on its own daemon thread
+     */
+    public static SimulationScheduler defaultScheduler() {
+        return DefaultSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Used to get current time of the simulation, the virtual schedulers count it from their creation
+     *
+     * @return current time in milliseconds, the same which is passed to the elevators on ticks
+     */
+    public long currentTimeMillis() {
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Used to hand the elevator over to the scheduler once it starts moving
+     *
+     * @param elevator elevator which should be advanced on every tick until it starts waiting again
+     */
+    void activate(ElevatorImpl elevator) {
+        runningElevators.add(elevator);
+    }
+
+    /**
+     * Advances all running elevators, the ones which stopped running are released.
+     * <p>
+     * Elevator which was started again right after it had stopped is kept, so that no start is lost
+     */
+    void tick() {
+        long now = clock.currentTimeMillis();
+        for (ElevatorImpl elevator : runningElevators) {
+            if (!elevator.tick(now)) {
+                runningElevators.remove(elevator);
+                if (elevator.getStatus() == Status.RUN) runningElevators.add(elevator);
+            }
+        }
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            // an exception would cancel all further ticks
+            LOGGER.error("Tick of the elevators failed", e);
+        }
+    }
+
+    /**
+     * Used to check whether any elevator is still being advanced
+     *
+     * @return true if at least one elevator is running
+     */
+    public boolean hasRunningElevators() {
+        return !runningElevators.isEmpty();
+    }
+
+    private static final class DefaultSchedulerHolder {
+        private static final SimulationScheduler INSTANCE = new SimulationScheduler(
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "elevator-simulation");
+                    thread.setDaemon(true);
+                    return thread;
+                }), DEFAULT_TICK_MILLIS);
+    }
+}
@@ -0,0 +1,212 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary log of the traffic handled by the elevators - installations, calls made on the floors, with or
+ * without the destination, and floors chosen inside the elevators.
+ * <p>
+ * Each entry takes 13 bytes: type, milliseconds elapsed since the previous entry and two ints which meaning
+ * depends on the type. Installation of the zoned elevators is logged as the installation of all the elevators
+ * followed by one entry per zone. The log is written by {@link Writer} and replayed by {@link TrafficReplay}
+ */
+public final class TrafficLog {
+
+    /**
+     * Elevators installed, first value is the number of elevators, second the number of floors
+     */
+    public static final byte INSTALL = 0;
+
+    /**
+     * Elevator called on the floor, first value is the number of the floor, second the {@link CallingDirection}
+     */
+    public static final byte CALL = 1;
+
+    /**
+     * Floor chosen inside the elevator, first value is id of the elevator, second the number of the floor
+     */
+    public static final byte ADDRESS = 2;
+
+    /**
+     * Elevator called on the floor with the destination chosen there, first value is the number of the floor, second
+     * the number of the destination floor
+     */
+    public static final byte DESTINATION = 3;
+
+    /**
+     * Zone of the elevators installed by the preceding {@link #INSTALL} entry, first value is the number of the
+     * elevators of the zone, second its floors - see {@link Entry#getZone()}
+     */
+    public static final byte ZONE = 4;
+
+    private static final int FLOOR_BITS = 15;
+
+    private static final int FLOOR_MASK = (1 << FLOOR_BITS) - 1;
+
+    private static final int LOBBY_BIT = 1 << (2 * FLOOR_BITS);
+
+    private static final byte[] MAGIC = {'E', 'T', 'L', 1};
+
+    private TrafficLog() {
+    }
+
+    /**
+     * Used to read the whole log, entry torn by a crash of the writer ends the log
+     *
+     * @param file file of the log
+     * @return entries in the order they were written
+     * @throws IOException if the file cannot be read or is not a traffic log
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) throw new IOException(file + " is not a traffic log");
+            }
+            long atMillis = 0;
+            while (true) {
+                byte type = input.readByte();
+                atMillis += input.readInt();
+                entries.add(new Entry(type, atMillis, input.readInt(), input.readInt()));
+            }
+        } catch (EOFException e) {
+            return entries;
+        }
+    }
+
+    /**
+     * Entry of the log
+     */
+    public static final class Entry {
+
+        private final byte type;
+
+        private final long atMillis;
+
+        private final int first;
+
+        private final int second;
+
+        Entry(byte type, long atMillis, int first, int second) {
+            this.type = type;
+            this.atMillis = atMillis;
+            this.first = first;
+            this.second = second;
+        }
+
+        public byte getType() {
+            return type;
+        }
+
+        /**
+         * @return milliseconds elapsed since the first entry of the log
+         */
+        public long getAtMillis() {
+            return atMillis;
+        }
+
+        public int getFirst() {
+            return first;
+        }
+
+        public int getSecond() {
+            return second;
+        }
+
+        /**
+         * @return zone of the {@link #ZONE} entry
+         */
+        public ElevatorZone getZone() {
+            return new ElevatorZone(first, (second >> FLOOR_BITS) & FLOOR_MASK, second & FLOOR_MASK,
+                    (second & LOBBY_BIT) != 0);
+        }
+    }
+
+    /**
+     * Appends entries to the log, it can be used from many threads
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream output;
+
+        private long lastMillis = -1;
+
+        /**
+         * Class constructor, existing file is overwritten
+         *
+         * @param file file of the log
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(Path file) throws IOException {
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            output.write(MAGIC);
+        }
+
+        public void installed(long atMillis, int numberOfElevators, int numberOfFloors) throws IOException {
+            append(INSTALL, atMillis, numberOfElevators, numberOfFloors);
+        }
+
+        /**
+         * Used to log the installation of the elevators serving the zones, each zone is logged by its own entry
+         *
+         * @param atMillis       time of the installation in milliseconds
+         * @param numberOfFloors number of floors in the building
+         * @param zones          zones of the installed elevators
+         * @throws IOException if the entries cannot be written
+         */
+        public synchronized void installed(long atMillis, int numberOfFloors, List<ElevatorZone> zones)
+                throws IOException {
+            append(INSTALL, atMillis, zones.stream().mapToInt(ElevatorZone::getNumberOfElevators).sum(),
+                    numberOfFloors);
+            for (ElevatorZone zone : zones) {
+                append(ZONE, atMillis, zone.getNumberOfElevators(), (zone.isServesLobby() ? LOBBY_BIT : 0)
+                        | zone.getLowestFloor() << FLOOR_BITS | zone.getHighestFloor());
+            }
+        }
+
+        public void called(long atMillis, int floor, CallingDirection direction) throws IOException {
+            append(CALL, atMillis, floor, direction.ordinal());
+        }
+
+        public void addressed(long atMillis, int elevatorId, int floor) throws IOException {
+            append(ADDRESS, atMillis, elevatorId, floor);
+        }
+
+        public void destinationCalled(long atMillis, int fromFloor, int toFloor) throws IOException {
+            append(DESTINATION, atMillis, fromFloor, toFloor);
+        }
+
+        public synchronized void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            output.close();
+        }
+
+        private synchronized void append(byte type, long atMillis, int first, int second) throws IOException {
+            long elapsed = lastMillis < 0 ? 0 : Math.max(0, atMillis - lastMillis);
+            lastMillis = lastMillis < 0 ? atMillis : Math.max(lastMillis, atMillis);
+            output.writeByte(type);
+            output.writeInt((int) Math.min(Integer.MAX_VALUE, elapsed));
+            output.writeInt(first);
+            output.writeInt(second);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorListener;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the {@link TrafficLog} against a fresh {@link ElevatorControllerImpl} running in virtual time.
+ * <p>
+ * Simulated time always follows the recorded one, so the replay is deterministic no matter how fast it runs; the
+ * speed only decides how the simulated time is paced against the wall-clock - 1 replays the traffic as it was
+ * recorded, 100 a hundred times faster and {@link #AS_FAST_AS_POSSIBLE} does not wait at all. Elevators still
+ * running after the last entry are simulated until they stop, without pacing.
+ * <p>
+ * Usage: {@code TrafficReplay <log file> [speed|max] [heuristic|eta]}
+ */
+public class TrafficReplay {
+
+    /**
+     * Speed at which the replay does not wait for the wall-clock
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    private final double speed;
+
+    private final long tickMillis;
+
+    private final DispatchStrategy dispatchStrategy;
+
+    /**
+     * Class constructor, the elevators are advanced every {@link SimulationScheduler#DEFAULT_TICK_MILLIS}
+     *
+     * @param speed how many times faster than recorded the traffic should be replayed
+     */
+    public TrafficReplay(double speed) {
+        this(speed, SimulationScheduler.DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param speed      how many times faster than recorded the traffic should be replayed
+     * @param tickMillis interval between two consecutive ticks in simulated milliseconds
+     */
+    public TrafficReplay(double speed, long tickMillis) {
+        this(speed, tickMillis, new HeuristicDispatchStrategy());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param speed            how many times faster than recorded the traffic should be replayed
+     * @param tickMillis       interval between two consecutive ticks in simulated milliseconds
+     * @param dispatchStrategy strategy choosing the elevator which serves a call
+     */
+    public TrafficReplay(double speed, long tickMillis, DispatchStrategy dispatchStrategy) {
+        if (!(speed > 0)) throw new IllegalArgumentException("Speed must be positive");
+        this.speed = speed;
+        this.tickMillis = tickMillis;
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: TrafficReplay <log file> [speed|max] [heuristic|eta]");
+            System.exit(1);
+        }
+        double speed = args.length < 2 || "max".equals(args[1]) ? AS_FAST_AS_POSSIBLE : Double.parseDouble(args[1]);
+        DispatchStrategy dispatchStrategy =
+                DispatchStrategy.named(args.length < 3 ? DispatchStrategy.HEURISTIC : args[2]);
+        TrafficReplay trafficReplay =
+                new TrafficReplay(speed, SimulationScheduler.DEFAULT_TICK_MILLIS, dispatchStrategy);
+        System.out.println(trafficReplay.replay(TrafficLog.read(Paths.get(args[0]))));
+    }
+
+    /**
+     * Used to replay the traffic
+     *
+     * @param entries entries of the log
+     * @return throughput of the replay together with the wait and trip times of the passengers
+     * @throws InterruptedException if the thread was interrupted while pacing the replay
+     */
+    public TrafficReport replay(List<TrafficLog.Entry> entries) throws InterruptedException {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(tickMillis);
+        return replay(new ElevatorControllerImpl(scheduler, dispatchStrategy), scheduler, entries);
+    }
+
+    /**
+     * Used to replay the traffic against the controller which may already have elevators installed, e.g. copied
+     * from the running one. The controller is advanced and dispatches calls on its own, so the dispatch strategy of
+     * the replay is not used
+     *
+     * @param elevatorController controller the traffic should be replayed against
+     * @param scheduler          scheduler advancing the elevators of the controller
+     * @param entries            entries of the log
+     * @return throughput of the replay together with the times of the passengers and the movements of the elevators
+     * @throws InterruptedException if the thread was interrupted while pacing the replay
+     */
+    TrafficReport replay(ElevatorControllerImpl elevatorController, VirtualTimeScheduler scheduler,
+                         List<TrafficLog.Entry> entries) throws InterruptedException {
+        Passengers passengers = new Passengers(scheduler);
+        elevatorController.addListener(passengers);
+        Movements movements = new Movements();
+        elevatorController.addListener(movements);
+
+        long wallStart = System.nanoTime();
+        int calls = 0;
+        long start = entries.isEmpty() ? 0 : entries.get(0).getAtMillis();
+        for (int index = 0; index < entries.size(); index++) {
+            TrafficLog.Entry entry = entries.get(index);
+            while (scheduler.currentTimeMillis() + tickMillis <= entry.getAtMillis() - start) {
+                pace(wallStart, scheduler.currentTimeMillis() + tickMillis);
+                scheduler.advance(tickMillis);
+            }
+            switch (entry.getType()) {
+                case TrafficLog.INSTALL:
+                    List<ElevatorZone> zones = new ArrayList<>();
+                    while (index + 1 < entries.size() && entries.get(index + 1).getType() == TrafficLog.ZONE) {
+                        zones.add(entries.get(++index).getZone());
+                    }
+                    if (zones.isEmpty()) {
+                        elevatorController.installElevators(entry.getFirst(), entry.getSecond());
+                    } else {
+                        elevatorController.installZones(entry.getSecond(), zones);
+                    }
+                    passengers.clear();
+                    break;
+                case TrafficLog.CALL:
+                    calls++;
+                    int floor = entry.getFirst();
+                    int elevatorId = elevatorController.requestElevator(floor,
+                            Direction.getDirection(CallingDirection.values()[entry.getSecond()]));
+                    if (elevatorId >= 0) passengers.waiting(elevatorId, floor);
+                    break;
+                case TrafficLog.DESTINATION:
+                    calls++;
+                    int destinationElevatorId = elevatorController.requestElevatorToDestination(entry.getFirst(),
+                            entry.getSecond());
+                    if (destinationElevatorId >= 0) {
+                        passengers.waiting(destinationElevatorId, entry.getFirst(), entry.getSecond());
+                    }
+                    break;
+                case TrafficLog.ADDRESS:
+                    calls++;
+                    if (elevatorController.chooseDestinationFloorWhenInside(entry.getFirst(), entry.getSecond())) {
+                        passengers.travelling(entry.getFirst(), entry.getSecond());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown entry type " + entry.getType());
+            }
+        }
+        scheduler.runUntilIdle();
+
+        return new TrafficReport(calls, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart),
+                scheduler.currentTimeMillis(), passengers.waitTimes(), passengers.tripTimes(),
+                movements.floorsTravelled, movements.stops);
+    }
+
+    private void pace(long wallStart, long simulatedMillis) throws InterruptedException {
+        if (speed == AS_FAST_AS_POSSIBLE) return;
+        long dueNanos = wallStart + (long) (TimeUnit.MILLISECONDS.toNanos(simulatedMillis) / speed);
+        long sleepNanos = dueNanos - System.nanoTime();
+        if (sleepNanos > 0) TimeUnit.NANOSECONDS.sleep(sleepNanos);
+    }
+
+    /**
+     * Passengers waiting for the elevators and travelling in them, each is done when the elevator stops on their
+     * floor. Passengers who chose the destination before boarding start travelling there once they board. Passengers
+     * are counted in the load of the elevators, the ones who chose the destination before boarding are counted by
+     * the controller. The replay runs on one thread, so no synchronization is needed
+     */
+    private static final class Passengers implements ElevatorListener {
+
+        private static final int NO_DESTINATION = -1;
+
+        private final VirtualTimeScheduler scheduler;
+
+        private final Map<Integer, List<Passenger>> byElevator = new HashMap<>();
+
+        private final List<Long> waitTimes = new ArrayList<>();
+
+        private final List<Long> tripTimes = new ArrayList<>();
+
+        private Passengers(VirtualTimeScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        private void waiting(int elevatorId, int floor) {
+            waiting(elevatorId, floor, NO_DESTINATION);
+        }
+
+        private void waiting(int elevatorId, int floor, int destination) {
+            add(elevatorId, new Passenger(floor, destination, scheduler.currentTimeMillis(), waitTimes));
+        }
+
+        private void travelling(int elevatorId, int floor) {
+            add(elevatorId, new Passenger(floor, NO_DESTINATION, scheduler.currentTimeMillis(), tripTimes));
+        }
+
+        private void add(int elevatorId, Passenger passenger) {
+            byElevator.computeIfAbsent(elevatorId, id -> new ArrayList<>()).add(passenger);
+        }
+
+        private void clear() {
+            byElevator.clear();
+        }
+
+        @Override
+        public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+            List<Passenger> passengers = byElevator.get(elevator.getId());
+            if (passengers == null || !(current instanceof ElevatorState)) return;
+            ElevatorState state = (ElevatorState) current;
+            List<Passenger> boarding = new ArrayList<>();
+            int boarded = 0;
+            int alighted = 0;
+            for (Iterator<Passenger> iterator = passengers.iterator(); iterator.hasNext(); ) {
+                Passenger passenger = iterator.next();
+                if (state.isStoppedAt(passenger.floor)) {
+                    passenger.times.add(scheduler.currentTimeMillis() - passenger.sinceMillis);
+                    iterator.remove();
+                    if (passenger.destination == NO_DESTINATION) {
+                        if (passenger.times == waitTimes) boarded++;
+                        else alighted++;
+                    } else {
+                        boarding.add(new Passenger(passenger.destination, NO_DESTINATION,
+                                scheduler.currentTimeMillis(), tripTimes));
+                    }
+                }
+            }
+            passengers.addAll(boarding);
+            if (boarded > 0 || alighted > 0) elevator.updateLoad(boarded, alighted);
+        }
+
+        private TrafficReport.Times waitTimes() {
+            return new TrafficReport.Times(toArray(waitTimes), unserved(waitTimes));
+        }
+
+        private TrafficReport.Times tripTimes() {
+            return new TrafficReport.Times(toArray(tripTimes), unserved(tripTimes));
+        }
+
+        private int unserved(List<Long> times) {
+            return (int) byElevator.values().stream().flatMap(List::stream)
+                    .filter(passenger -> passenger.times == times).count();
+        }
+
+        private static long[] toArray(List<Long> times) {
+            return times.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    /**
+     * Movements of the elevators, which cost the most energy - floors travelled and stops made on the way
+     */
+    private static final class Movements implements ElevatorListener {
+
+        private long floorsTravelled;
+
+        private long stops;
+
+        @Override
+        public void stateChanged(Elevator elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+            if (previous.currentFloor() == current.currentFloor()) return;
+            floorsTravelled += Math.abs(current.currentFloor() - previous.currentFloor());
+            if (current instanceof ElevatorState && ((ElevatorState) current).isStoppedAt(current.currentFloor())) {
+                stops++;
+            }
+        }
+    }
+
+    private static final class Passenger {
+
+        private final int floor;
+
+        private final int destination;
+
+        private final long sinceMillis;
+
+        private final List<Long> times;
+
+        private Passenger(int floor, int destination, long sinceMillis, List<Long> times) {
+            this.floor = floor;
+            this.destination = destination;
+            this.sinceMillis = sinceMillis;
+            this.times = times;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import java.util.Arrays;
+
+/**
+ * Result of the {@link TrafficReplay} - throughput of the replay, times experienced by the passengers, measured
+ * in simulated milliseconds, and movements of the elevators, which tell how much energy they used
+ */
+public final class TrafficReport {
+
+    private final int calls;
+
+    private final long wallMillis;
+
+    private final long simulatedMillis;
+
+    private final Times waitTimes;
+
+    private final Times tripTimes;
+
+    private final long floorsTravelled;
+
+    private final long stops;
+
+    TrafficReport(int calls, long wallMillis, long simulatedMillis, Times waitTimes, Times tripTimes,
+                  long floorsTravelled, long stops) {
+        this.calls = calls;
+        this.wallMillis = wallMillis;
+        this.simulatedMillis = simulatedMillis;
+        this.waitTimes = waitTimes;
+        this.tripTimes = tripTimes;
+        this.floorsTravelled = floorsTravelled;
+        this.stops = stops;
+    }
+
+    /**
+     * @return number of calls and chosen floors replayed
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    /**
+     * @return number of calls and chosen floors replayed per second of the wall-clock
+     */
+    public double getCallsPerSecond() {
+        return calls * 1000.0 / Math.max(1, wallMillis);
+    }
+
+    /**
+     * @return times from calling the elevator on the floor until the elevator stopped there
+     */
+    public Times getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return times from choosing the floor inside the elevator until the elevator stopped there
+     */
+    public Times getTripTimes() {
+        return tripTimes;
+    }
+
+    /**
+     * @return number of floors passed by all elevators together
+     */
+    public long getFloorsTravelled() {
+        return floorsTravelled;
+    }
+
+    /**
+     * @return number of stops made by all elevators together, each of them costs braking and accelerating again
+     */
+    public long getStops() {
+        return stops;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls: %d, wall: %d ms, simulated: %d ms, throughput: %.1f calls/s%n"
+                        + "wait times: %s%ntrip times: %s%nmovements: %d floors travelled, %d stops",
+                calls, wallMillis, simulatedMillis, getCallsPerSecond(), waitTimes, tripTimes, floorsTravelled,
+                stops);
+    }
+
+    /**
+     * Summary of the measured times in milliseconds
+     */
+    public static final class Times {
+
+        private final long[] sorted;
+
+        private final int unserved;
+
+        Times(long[] times, int unserved) {
+            this.sorted = times.clone();
+            Arrays.sort(this.sorted);
+            this.unserved = unserved;
+        }
+
+        /**
+         * @return number of served calls
+         */
+        public int getCount() {
+            return sorted.length;
+        }
+
+        /**
+         * @return number of calls which were still not served when the replay finished
+         */
+        public int getUnserved() {
+            return unserved;
+        }
+
+        public double getMean() {
+            return sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0);
+        }
+
+        /**
+         * @param percentile percentile between 0 and 100
+         * @return the smallest time not exceeded by given percent of the served calls, 0 if none was served
+         */
+        public long getPercentile(double percentile) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+        }
+
+        public long getMax() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count %d, unserved %d, mean %.0f ms, p50 %d ms, p95 %d ms, max %d ms",
+                    getCount(), unserved, getMean(), getPercentile(50), getPercentile(95), getMax());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+/**
+ * {@link SimulationClock} which moves forward only when it is explicitly advanced
+ */
+public class VirtualClock implements SimulationClock {
+
+    private volatile long now;
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Moves the clock forward
+     *
+     * @param millis number of milliseconds the clock should be moved by
+     */
+    void advance(long millis) {
+        this.now += millis;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of the Java runtime the application runs on.
+ * <p>
+ * The application is built for Java 11, which has no virtual threads, so they are created reflectively. They are
+ * available on Java 21 and newer - on Java 19 and 20 only as a preview - on older runtimes every method but
+ * {@link #isSupported()} fails
+ */
+public final class VirtualThreads {
+
+    private static final int FIRST_RELEASE = 21;
+
+    private static final Method OF_VIRTUAL = Runtime.version().feature() >= FIRST_RELEASE
+            ? method(Thread.class, "ofVirtual") : null;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the runtime can create virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Used to create factory of the virtual threads
+     *
+     * @param prefix prefix of the names of the threads, followed by the number of the thread
+     * @return factory creating a new virtual thread for every task
+     * @throws IllegalStateException if the runtime has no virtual threads
+     */
+    public static ThreadFactory factory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java " + FIRST_RELEASE
+                    + " or newer, running on Java " + Runtime.version().feature());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = OF_VIRTUAL.getReturnType();
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads could not be created", e);
+        }
+    }
+
+    /**
+     * Used to create executor starting a new virtual thread for every task, e.g. for blocking request handlers
+     *
+     * @param prefix prefix of the names of the threads
+     * @return executor which never queues the tasks
+     * @throws IllegalStateException if the runtime has no virtual threads
+     */
+    public static ExecutorService perTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads could not be created", e);
+        }
+    }
+
+    private static Method method(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+/**
+ * {@link SimulationScheduler} driven by a {@link VirtualClock} instead of the wall-clock.
+ * <p>
+ * Time moves forward only when {@link #advance(long)} or {@link #runUntilIdle()} is called and the ticks are
+ * executed on the calling thread. Elevators are stepped exactly like in real-time mode, so the same calls lead to
+ * the same dispatch decisions, but a whole day of traffic can be simulated in milliseconds
+ */
+public class VirtualTimeScheduler extends SimulationScheduler {
+
+    /**
+     * Upper bound of virtual time {@link #runUntilIdle()} may spend, protecting from endless simulations
+     */
+    static final long MAX_RUN_UNTIL_IDLE_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final VirtualClock clock;
+
+    private final long tickMillis;
+
+    private long nextTickAt;
+
+    /**
+     * Class constructor, virtual time starts at 0 and ticks every {@link #DEFAULT_TICK_MILLIS}
+     */
+    public VirtualTimeScheduler() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Class constructor, virtual time starts at 0
+     *
+     * @param tickMillis interval between two consecutive ticks in virtual milliseconds
+     */
+    public VirtualTimeScheduler(long tickMillis) {
+        this(new VirtualClock(), tickMillis);
+    }
+
+    private VirtualTimeScheduler(VirtualClock clock, long tickMillis) {
+        super(clock);
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.nextTickAt = tickMillis;
+    }
+
+    /**
+     * Moves the virtual time forward by exactly the given period, executing every tick which falls into it. Ticks
+     * stay every tick interval from the start, so a period shorter than the interval only brings the next tick
+     * closer
+     *
+     * @param millis number of virtual milliseconds the simulation should be moved by
+     */
+    public void advance(long millis) {
+        long until = clock.currentTimeMillis() + millis;
+        while (nextTickAt <= until) {
+            clock.advance(nextTickAt - clock.currentTimeMillis());
+            tick();
+            nextTickAt += tickMillis;
+        }
+        clock.advance(until - clock.currentTimeMillis());
+    }
+
+    /**
+     * Moves the virtual time forward until all elevators are waiting
+     *
+     * @return number of virtual milliseconds which elapsed
+     */
+    public long runUntilIdle() {
+        long start = clock.currentTimeMillis();
+        while (hasRunningElevators() && clock.currentTimeMillis() - start < MAX_RUN_UNTIL_IDLE_MILLIS) {
+            advance(tickMillis);
+        }
+        return clock.currentTimeMillis() - start;
+    }
+}
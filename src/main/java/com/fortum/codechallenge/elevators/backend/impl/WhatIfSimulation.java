@@ -0,0 +1,89 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs the same traffic against several dispatch strategies at once, to compare how they would serve it.
+ * <p>
+ * Every candidate simulation starts from its own copy of the same elevators - the ones of the given controller,
+ * frozen at the moment of the call, or none if the traffic installs them - and runs in virtual time as fast as
+ * possible. Simulations share nothing, so they run in parallel on the {@link ForkJoinPool} and scale with its
+ * parallelism.
+ * <p>
+ * Usage: {@code WhatIfSimulation <log file> [strategy...]}, all strategies are compared if none is given
+ */
+public class WhatIfSimulation {
+
+    private final ForkJoinPool pool;
+
+    private final long tickMillis;
+
+    /**
+     * Class constructor, simulations run on the common pool and elevators are advanced every
+     * {@link SimulationScheduler#DEFAULT_TICK_MILLIS}
+     */
+    public WhatIfSimulation() {
+        this(ForkJoinPool.commonPool(), SimulationScheduler.DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param pool       pool the simulations should run on
+     * @param tickMillis interval between two consecutive ticks in simulated milliseconds
+     */
+    public WhatIfSimulation(ForkJoinPool pool, long tickMillis) {
+        this.pool = pool;
+        this.tickMillis = tickMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: WhatIfSimulation <log file> [strategy...]");
+            System.exit(1);
+        }
+        Map<String, DispatchStrategy> candidates = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) candidates.put(args[i], DispatchStrategy.named(args[i]));
+        if (candidates.isEmpty()) {
+            candidates.put(DispatchStrategy.HEURISTIC, DispatchStrategy.named(DispatchStrategy.HEURISTIC));
+            candidates.put(DispatchStrategy.ETA, DispatchStrategy.named(DispatchStrategy.ETA));
+        }
+        Map<String, TrafficReport> reports = new WhatIfSimulation()
+                .compare(new ElevatorControllerImpl(new VirtualTimeScheduler()), TrafficLog.read(Paths.get(args[0])),
+                        candidates);
+        reports.forEach((name, report) -> System.out.printf("%s:%n%s%n%n", name, report));
+    }
+
+    /**
+     * Used to simulate the traffic with every candidate strategy
+     *
+     * @param elevatorController controller which elevators the simulations should start with, it is not changed
+     * @param entries            traffic which should be simulated
+     * @param candidates         strategies which should be compared, by their names
+     * @return reports of the simulations by the names of the strategies, in the order of the candidates
+     */
+    public Map<String, TrafficReport> compare(ElevatorControllerImpl elevatorController,
+                                              List<TrafficLog.Entry> entries,
+                                              Map<String, DispatchStrategy> candidates) {
+        ElevatorControllerImpl frozen = elevatorController.copy(new VirtualTimeScheduler(tickMillis),
+                new HeuristicDispatchStrategy());
+        List<ForkJoinTask<TrafficReport>> simulations = new ArrayList<>(candidates.size());
+        for (DispatchStrategy candidate : candidates.values()) {
+            VirtualTimeScheduler scheduler = new VirtualTimeScheduler(tickMillis);
+            ElevatorControllerImpl copy = frozen.copy(scheduler, candidate);
+            simulations.add(pool.submit(() -> new TrafficReplay(TrafficReplay.AS_FAST_AS_POSSIBLE, tickMillis)
+                    .replay(copy, scheduler, entries)));
+        }
+        Map<String, TrafficReport> reports = new LinkedHashMap<>();
+        int i = 0;
+        for (String name : candidates.keySet()) reports.put(name, simulations.get(i++).join());
+        return reports;
+    }
+}
@@ -0,0 +1,221 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorMetricsReport;
+import com.fortum.codechallenge.elevators.backend.api.HallCall;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import com.fortum.codechallenge.elevators.backend.impl.BuildingRegistry;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorMetrics;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rest resources used to control elevators of many buildings, each building is served by its own controller shard.
+ * Resources without the building in the path ({@link ElevatorControllerEndPoints}) control the default building
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/rest/v1/buildings")
+public final class BuildingEndPoints {
+
+    @Autowired
+    private BuildingRegistry buildingRegistry;
+
+    /**
+     * Service used to list the buildings
+     *
+     * @return ids of all buildings with installed elevators
+     */
+    @ApiOperation(value = "The service returns ids of all buildings with installed elevators")
+    @RequestMapping(method = RequestMethod.GET)
+    public Set<String> getBuildings() {
+        return buildingRegistry.getBuildingIds();
+    }
+
+    /**
+     * Service used to install the elevators in the building
+     *
+     * @param buildingId        id of the building or elevator bank
+     * @param numberOfElevators number of elevators which should be installed
+     * @param numberOfFloors    number of floors in the building
+     * @return boolean - true if the elevators were installed, false - if the building is new and there are already
+     * {@link BuildingRegistry#MAX_BUILDINGS} buildings
+     */
+    @ApiOperation(
+            value = "The service used to install the elevators in the given building",
+            notes = "Returns false if the building does not exist yet and the maximal number of buildings - "
+                    + BuildingRegistry.MAX_BUILDINGS + " - is reached"
+    )
+    @RequestMapping(value = "/{buildingId}/install", method = RequestMethod.POST)
+    public boolean installElevators(
+            @PathVariable String buildingId,
+            @RequestParam @Min(value = 1, message = "There should be at least 1 elevator installed")
+            @Max(value = ElevatorController.MAX_ELEVATORS, message = "Number of elevators cannot exceed "
+                    + ElevatorController.MAX_ELEVATORS) int numberOfElevators,
+            @RequestParam @Min(value = 1, message = "There should be at least 1 floor in the building")
+            @Max(value = ElevatorController.MAX_FLOORS, message = "Number of floors cannot exceed "
+                    + ElevatorController.MAX_FLOORS)
+                    int numberOfFloors) {
+        return buildingRegistry.install(buildingId, numberOfElevators, numberOfFloors).isPresent();
+    }
+
+    /**
+     * Service used to remove the building and stop its elevators
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return true if the building existed
+     */
+    @ApiOperation(value = "The service used to remove the building and stop its elevators")
+    @RequestMapping(value = "/{buildingId}", method = RequestMethod.DELETE)
+    public boolean removeBuilding(@PathVariable String buildingId) {
+        return buildingRegistry.remove(buildingId);
+    }
+
+    /**
+     * Service used to call elevator by caller waiting on the floor of the building
+     *
+     * @param buildingId id of the building or elevator bank
+     * @param floor      number of the floor from which the elevator was called
+     * @param direction  direction chosen in caller's request
+     * @return int - id of the elevator which was chosen to serve the caller's request, '-1' if the call could not be
+     * processed
+     */
+    @ApiOperation(value = "The service used to call the elevator by the user waiting on the floor of the building")
+    @RequestMapping(value = "/{buildingId}/call", method = RequestMethod.POST)
+    public int callElevator(
+            @PathVariable String buildingId,
+            @RequestParam(name = "floor") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
+                    Integer floor,
+            @RequestParam(name = "direction") CallingDirection direction) {
+        return buildingRegistry.inBuilding(buildingId,
+                elevatorController -> elevatorController.requestElevator(floor, Direction.getDirection(direction)))
+                .orElse(-1);
+    }
+
+    /**
+     * Service used to call elevator by caller who chooses the destination floor before boarding
+     *
+     * @param buildingId  id of the building or elevator bank
+     * @param floor       number of the floor from which the elevator was called
+     * @param destination number of the floor the caller is going to
+     * @return int - id of the elevator the caller should board, '-1' if the call could not be processed
+     */
+    @ApiOperation(value = "The service used to call the elevator by the user choosing the destination on the floor " +
+            "of the building")
+    @RequestMapping(value = "/{buildingId}/call/destination", method = RequestMethod.POST)
+    public int callElevatorToDestination(
+            @PathVariable String buildingId,
+            @RequestParam(name = "floor") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
+                    Integer floor,
+            @RequestParam(name = "destination") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
+                    Integer destination) {
+        return buildingRegistry.inBuilding(buildingId,
+                elevatorController -> elevatorController.requestElevatorToDestination(floor, destination))
+                .orElse(-1);
+    }
+
+    /**
+     * Service used to call elevators for many callers waiting on the floors of the building at once
+     *
+     * @param buildingId id of the building or elevator bank
+     * @param calls      calls made by the callers, each with number of the floor and chosen direction
+     * @return list of ints - ids of the elevators chosen to serve the calls, in the order of the calls
+     */
+    @ApiOperation(value = "The service used to call elevators for many users waiting on the floors of the building")
+    @RequestMapping(value = "/{buildingId}/call/batch", method = RequestMethod.POST)
+    public List<Integer> callElevators(@PathVariable String buildingId, @RequestBody List<HallCall> calls) {
+        return buildingRegistry.inBuilding(buildingId,
+                elevatorController -> elevatorController.requestElevators(calls))
+                .orElseGet(() -> calls.stream().map(call -> -1).collect(Collectors.toList()));
+    }
+
+    /**
+     * Service used when passenger inside the elevator of the building chooses the target floor
+     *
+     * @param buildingId id of the building or elevator bank
+     * @param elevatorId id of the elevator the passenger is in
+     * @param floor      number of the floor chosen by passenger
+     * @return boolean - true if the floor was correctly addressed,
+     * false - if the building, the given floor or elevator for the id does not exist
+     */
+    @ApiOperation(value = "The service used by the user (inside the lift) to choose elevator's target floor")
+    @RequestMapping(value = "/{buildingId}/address-elevator", method = RequestMethod.POST)
+    public boolean addressElevator(@PathVariable String buildingId, @RequestParam int elevatorId,
+                                   @RequestParam int floor) {
+        return buildingRegistry.inBuilding(buildingId,
+                elevatorController -> elevatorController.chooseDestinationFloorWhenInside(elevatorId, floor))
+                .orElse(false);
+    }
+
+    /**
+     * Service used when passengers left and entered the elevator of the building at a stop
+     *
+     * @param buildingId id of the building or elevator bank
+     * @param elevatorId id of the elevator which stopped
+     * @param boarded    number of passengers who entered the elevator
+     * @param alighted   number of passengers who left the elevator
+     * @return int - number of passengers inside the elevator, '-1' if the building or elevator for the id does not
+     * exist
+     */
+    @ApiOperation(value = "The service used to report passengers who left and entered the elevator of the building " +
+            "at a stop")
+    @RequestMapping(value = "/{buildingId}/load", method = RequestMethod.POST)
+    public int updateLoad(@PathVariable String buildingId, @RequestParam int elevatorId,
+                          @RequestParam(defaultValue = "0") @Min(value = 0, message = "Number of passengers cannot " +
+                                  "be negative") int boarded,
+                          @RequestParam(defaultValue = "0") @Min(value = 0, message = "Number of passengers cannot " +
+                                  "be negative") int alighted) {
+        return buildingRegistry.inBuilding(buildingId,
+                elevatorController -> elevatorController.updateLoad(elevatorId, boarded, alighted))
+                .orElse(-1);
+    }
+
+    /**
+     * Service used to get a snapshot of the current positions of the elevators in the building
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return List of Integers - each of list elements indicates position (number of floor) of one elevator
+     */
+    @ApiOperation(value = "The service allows to get current positions of the elevators in the building")
+    @RequestMapping(value = "/{buildingId}/positions", method = RequestMethod.GET)
+    public List<Integer> getElevatorsPositions(@PathVariable String buildingId) {
+        return buildingRegistry.inBuilding(buildingId, ElevatorController::getElevatorsPositions)
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * Service used to get a snapshot of the current states of the elevators in the building
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return List of Statuses - each of list elements indicates state of one elevator
+     */
+    @ApiOperation(value = "The service allows to get current states of the elevators in the building")
+    @RequestMapping(value = "/{buildingId}/elevators-states", method = RequestMethod.GET)
+    public List<Status> getElevatorsStatuses(@PathVariable String buildingId) {
+        return buildingRegistry.inBuilding(buildingId, ElevatorController::getElevatorStatuses)
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * Service used to get times measured in the building
+     *
+     * @param buildingId id of the building or elevator bank
+     * @return summaries of wait, ride and dispatch times in the building and per elevator, empty if the building
+     * does not exist
+     */
+    @ApiOperation(value = "The service returns wait, ride and dispatch times measured in the building")
+    @RequestMapping(value = "/{buildingId}/metrics", method = RequestMethod.GET)
+    public ElevatorMetricsReport getMetrics(@PathVariable String buildingId) {
+        return buildingRegistry.findMetrics(buildingId).map(ElevatorMetrics::report).orElse(null);
+    }
+}
@@ -3,24 +3,26 @@ package com.fortum.codechallenge.elevators.backend.resources;
 import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
 import com.fortum.codechallenge.elevators.backend.api.Direction;
 import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.api.HallCall;
 import com.fortum.codechallenge.elevators.backend.api.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * Rest resources used to control system of elevators
  */
-@EnableScheduling
 @CrossOrigin
 @RestController
 @RequestMapping("/api/rest/v1")
@@ -30,30 +32,70 @@ public final class ElevatorControllerEndPoints {
     private ElevatorController elevatorController;
 
     @Autowired
-    private SimpMessagingTemplate template;
+    private ElevatorUpdatesStream updatesStream;
+
+    @Autowired
+    private PositionsBroadcaster positionsBroadcaster;
+
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final EncodedJson positionsJson = new EncodedJson();
+
+    private final EncodedJson statusesJson = new EncodedJson();
 
     /**
-     * Service and websocket used to get a snapshot of the current positions of the elevators
+     * Websocket used to get a snapshot of the current positions of the elevators. Further changes of the
+     * positions are pushed to the websocket topic by {@link PositionsBroadcaster}
      *
      * @return List of Integers - each of list elements indicates position (number of floor) of one elevator -
      * first element = elevator with id =1, second = elevator with id2 etc.
      */
-    @Scheduled(fixedRate = 500)
     @MessageMapping("/positions")
-    @RequestMapping(value = "/positions", method = RequestMethod.GET)
+    public List<Integer> getElevatorsPositions() {
+        return elevatorController.getElevatorsPositions();
+    }
+
+    /**
+     * Service used to get a snapshot of the current positions of the elevators. The JSON is encoded once per
+     * change of the elevators and served as is to all readers
+     *
+     * @return List of Integers - each of list elements indicates position (number of floor) of one elevator -
+     * first element = elevator with id =1, second = elevator with id2 etc.
+     * @throws JsonProcessingException if the positions cannot be encoded
+     */
+    @RequestMapping(value = "/positions", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @ApiOperation(
             value = "The service allows to get current positions of the elevators in the building",
             notes = "The Service allows to get current positions of the elevators in the building - their positions" +
                     " are given in form of array, each of the array's element indicates position" +
-                    " (number of the floor) of one elevator")
-
-    public List<Integer> getElevatorsPositions() {
-        this.template.convertAndSend("/topic/positions",
-                Arrays.toString(elevatorController.getElevatorsPositions().toArray()));
-        return elevatorController.getElevatorsPositions();
+                    " (number of the floor) of one elevator",
+            response = Integer.class, responseContainer = "List")
+    public byte[] getElevatorsPositionsJson() throws JsonProcessingException {
+        return positionsJson.of(elevatorController.getElevatorsPositions(), objectMapper);
     }
 
 
+    /**
+     * Server-sent events stream of the elevators' states
+     *
+     * @return Flux of updates - current state of each elevator followed by every change of floor, direction, status
+     * or addressed floor
+     */
+    @RequestMapping(value = "/elevators-stream", method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(
+            value = "The service streams changes of the elevators' states",
+            notes = "The service streams states of the elevators as server-sent events - first the current state " +
+                    "of each elevator, then every change of its floor, direction, status or addressed floor. " +
+                    "The connection does not hold a server thread while waiting for the changes")
+    public Flux<ElevatorUpdate> streamElevatorUpdates() {
+        return updatesStream.updates();
+    }
+
     /**
      * Service used to call elevator by caller waiting on the floor
      *
@@ -74,7 +116,55 @@ public final class ElevatorControllerEndPoints {
             @RequestParam(name = "floor") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
                     Integer floor,
             @RequestParam(name = "direction") CallingDirection direction) {
-        return elevatorController.requestElevator(floor, Direction.getDirection(direction));
+        int elevatorId = elevatorController.requestElevator(floor, Direction.getDirection(direction));
+        if (elevatorId >= 0) trafficRecorder.called(floor, direction);
+        return elevatorId;
+    }
+
+    /**
+     * Service used to call elevator by caller who chooses the destination floor before boarding
+     *
+     * @param floor       number of the floor from which the elevator was called
+     * @param destination number of the floor the caller is going to
+     * @return int - id of the elevator the caller should board
+     */
+    @ApiOperation(
+            value = "The service used to call the elevator by the user choosing the destination on the floor",
+            notes = "The service used by destination keypads - the user waiting on the floor chooses the floor " +
+                    "to go to. Users going to similar floors are assigned the same elevator. Returns the id of the " +
+                    "elevator the user should board, id = '-1' means that elevators were not installed or the floors " +
+                    "are not valid and the call could not be processed"
+    )
+    @RequestMapping(value = "/call/destination", method = RequestMethod.POST)
+    public int callElevatorToDestination(
+            @RequestParam(name = "floor") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
+                    Integer floor,
+            @RequestParam(name = "destination") @Min(value = 0, message = "Elevator cannot go below the 0 floor")
+                    Integer destination) {
+        int elevatorId = elevatorController.requestElevatorToDestination(floor, destination);
+        if (elevatorId >= 0) trafficRecorder.destinationCalled(floor, destination);
+        return elevatorId;
+    }
+
+    /**
+     * Service used to call elevators for many callers waiting on the floors at once
+     *
+     * @param calls calls made by the callers, each with number of the floor and chosen direction
+     * @return list of ints - ids of the elevators chosen to serve the calls, in the order of the calls
+     */
+    @ApiOperation(
+            value = "The service used to call elevators for many users waiting on the floors at once",
+            notes = "The service used to call elevators for a batch of calls, each given by the floor and the " +
+                    "direction. Returns ids of the elevators heading towards the callers in the order of the calls, " +
+                    "id = '-1' means that the call could not be processed"
+    )
+    @RequestMapping(value = "/call/batch", method = RequestMethod.POST)
+    public List<Integer> callElevators(@RequestBody List<HallCall> calls) {
+        List<Integer> elevatorIds = elevatorController.requestElevators(calls);
+        for (int i = 0; i < calls.size() && i < elevatorIds.size(); i++) {
+            if (elevatorIds.get(i) >= 0) trafficRecorder.called(calls.get(i).getFloor(), calls.get(i).getDirection());
+        }
+        return elevatorIds;
     }
 
     /**
@@ -89,11 +179,43 @@ public final class ElevatorControllerEndPoints {
     @RequestMapping(value = "/install", method = RequestMethod.POST)
     public void installElevators(
             @RequestParam @Min(value = 1, message = "There should be at least 1 elevator installed")
-            @Max(value = 10, message = "Number of elevators cannot exceed 10") int numberOfElevators,
+            @Max(value = ElevatorController.MAX_ELEVATORS, message = "Number of elevators cannot exceed "
+                    + ElevatorController.MAX_ELEVATORS) int numberOfElevators,
             @RequestParam @Min(value = 1, message = "There should be at least 1 floor in the building")
-            @Max(value = 20, message = " Number of floors cannot exceed 20")
+            @Max(value = ElevatorController.MAX_FLOORS, message = "Number of floors cannot exceed "
+                    + ElevatorController.MAX_FLOORS)
                     int numberOfFloors) {
+        trafficRecorder.installed(numberOfElevators, numberOfFloors);
         elevatorController.installElevators(numberOfElevators, numberOfFloors);
+        positionsBroadcaster.publishAll();
+    }
+
+    /**
+     * Service used to install the elevators serving zones of the building
+     *
+     * @param numberOfFloors number of floors in the building
+     * @param zones          zones of the building with the number of elevators serving each of them
+     * @return boolean - true if the elevators were installed, false - if any of the zones is not valid
+     */
+    @ApiOperation(
+            value = "The service used to install the elevators serving zones of the building",
+            notes = "The service used to install groups of elevators, each serving a range of floors and optionally " +
+                    "the lobby on the ground floor. Calls are dispatched only to the elevators of the zones serving " +
+                    "the floors of the call, call outside of all zones returns id = '-1'. Returns false if there is " +
+                    "no zone, any zone has no elevator or floors outside of the building, or there are too many " +
+                    "elevators"
+    )
+    @RequestMapping(value = "/install/zones", method = RequestMethod.POST)
+    public boolean installZones(
+            @RequestParam @Min(value = 1, message = "There should be at least 1 floor in the building")
+            @Max(value = ElevatorController.MAX_FLOORS, message = "Number of floors cannot exceed "
+                    + ElevatorController.MAX_FLOORS)
+                    int numberOfFloors,
+            @RequestBody List<ElevatorZone> zones) {
+        if (!elevatorController.installZones(numberOfFloors, zones)) return false;
+        trafficRecorder.installed(numberOfFloors, zones);
+        positionsBroadcaster.publishAll();
+        return true;
     }
 
     /**
@@ -109,27 +231,53 @@ public final class ElevatorControllerEndPoints {
     )
     @RequestMapping(value = "/address-elevator", method = RequestMethod.POST)
     public boolean addressElevator(@RequestParam int elevatorId, @RequestParam int floor) {
-
-        return elevatorController.chooseDestinationFloorWhenInside(elevatorId, floor);
+        boolean addressed = elevatorController.chooseDestinationFloorWhenInside(elevatorId, floor);
+        if (addressed) trafficRecorder.addressed(elevatorId, floor);
+        return addressed;
 
     }
 
 
     /**
-     * Service and websocket used to get a snapshot of the current positions of the elevators
+     * Service used when passengers left and entered the elevator at a stop
      *
-     * @return List of Integers - each of list elements indicates position (number of floor) of one elevator -
-     * first element = elevator with id =1, second = elevator with id2 etc.
+     * @param elevatorId id of the elevator which stopped
+     * @param boarded    number of passengers who entered the elevator
+     * @param alighted   number of passengers who left the elevator
+     * @return int - number of passengers inside the elevator, '-1' if the elevator for the id does not exist
      */
-    @RequestMapping(value = "/elevators-states", method = RequestMethod.GET)
+    @ApiOperation(
+            value = "The service used to report passengers who left and entered the elevator at a stop",
+            notes = "The service used by the load sensor of the elevator. Returns the number of passengers inside " +
+                    "the elevator after the stop, '-1' means that the elevator for the id does not exist. Elevators " +
+                    "close to their capacity are avoided when the calls are dispatched"
+    )
+    @RequestMapping(value = "/load", method = RequestMethod.POST)
+    public int updateLoad(@RequestParam int elevatorId,
+                          @RequestParam(defaultValue = "0") @Min(value = 0, message = "Number of passengers cannot " +
+                                  "be negative") int boarded,
+                          @RequestParam(defaultValue = "0") @Min(value = 0, message = "Number of passengers cannot " +
+                                  "be negative") int alighted) {
+        return elevatorController.updateLoad(elevatorId, boarded, alighted);
+    }
+
+    /**
+     * Service used to get a snapshot of the current states of the elevators. The JSON is encoded once per change of
+     * the elevators and served as is to all readers
+     *
+     * @return List of Statuses - each of list elements indicates state (RUN/WAIT/OUT OF SERVICE) of one elevator
+     * @throws JsonProcessingException if the states cannot be encoded
+     */
+    @RequestMapping(value = "/elevators-states", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
     @ApiOperation(
             value = "The service allows to get current states of the elevators in the building",
             notes = "The Service allows to get current states of the elevators in the building - their states" +
                     " are given in form of array, each of the array's element indicates state" +
-                    " (RUN/WAIT/OUT OF SERVICE) of one elevator")
-
-    public List<Status> getElevatorsStatuses() {
-        return elevatorController.getElevatorStatuses();
+                    " (RUN/WAIT/OUT OF SERVICE) of one elevator",
+            response = Status.class, responseContainer = "List")
+    public byte[] getElevatorsStatusesJson() throws JsonProcessingException {
+        return statusesJson.of(elevatorController.getElevatorStatuses(), objectMapper);
     }
 
 
@@ -0,0 +1,145 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorSnapshot;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot stream of the visible state changes of all elevators, shared by all subscribers.
+ * <p>
+ * Changes are pushed by the thread which made them. Subscribers which do not keep up get only the latest update of
+ * every elevator which changed since they requested the previous one, so no elevator's final state is lost and the
+ * elevators are never slowed down. Updates older than the one already sent for the elevator are dropped - versions
+ * of the elevators start again when they are reinstalled, so the updates of the elevators which are not installed any
+ * more are dropped too, and the versions are compared only between the updates of the same installed elevator
+ */
+@Component
+public class ElevatorUpdatesStream {
+
+    private final ElevatorController elevatorController;
+
+    private final List<Conflation> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Class constructor
+     *
+     * @param elevatorController controller which elevators' changes will be streamed
+     */
+    public ElevatorUpdatesStream(ElevatorController elevatorController) {
+        this.elevatorController = elevatorController;
+        elevatorController.addListener((elevator, previous, current) -> {
+            if (subscribers.isEmpty() || !ElevatorUpdate.isVisibleChange(previous, current)
+                    || !isInstalled(elevator)) {
+                return;
+            }
+            ElevatorUpdate update = ElevatorUpdate.of(elevator, current);
+            for (Conflation subscriber : subscribers) subscriber.offer(elevator, update, current.getVersion());
+        });
+    }
+
+    /**
+     * Stream of all further changes, without the current state of the elevators
+     *
+     * @return Flux of updates which never completes
+     */
+    public Flux<ElevatorUpdate> changes() {
+        return Flux.create(sink -> subscribe(sink, false));
+    }
+
+    /**
+     * Stream starting with current state of every elevator followed by all further changes. The subscriber receives
+     * the changes from before the state is read, a change older than the state is dropped
+     *
+     * @return Flux of updates which never completes
+     */
+    public Flux<ElevatorUpdate> updates() {
+        return Flux.create(sink -> subscribe(sink, true));
+    }
+
+    private void subscribe(FluxSink<ElevatorUpdate> sink, boolean withCurrentState) {
+        Conflation subscriber = new Conflation(sink);
+        subscribers.add(subscriber);
+        sink.onDispose(() -> subscribers.remove(subscriber));
+        if (withCurrentState) {
+            for (Elevator elevator : elevatorController.getElevators()) {
+                ElevatorSnapshot snapshot = elevator.getSnapshot();
+                subscriber.offer(elevator, ElevatorUpdate.of(elevator, snapshot), snapshot.getVersion());
+            }
+        }
+        sink.onRequest(requested -> subscriber.drain());
+        subscriber.drain();
+    }
+
+    private boolean isInstalled(Elevator elevator) {
+        List<Elevator> installed = elevatorController.getElevators();
+        return elevator.getId() < installed.size() && installed.get(elevator.getId()) == elevator;
+    }
+
+    /**
+     * Latest updates of the elevators waiting for one subscriber, at most one per elevator
+     */
+    private static final class Conflation {
+
+        private final FluxSink<ElevatorUpdate> sink;
+
+        private final Map<Integer, ElevatorUpdate> pending = new LinkedHashMap<>();
+
+        private final Map<Integer, Elevator> elevators = new HashMap<>();
+
+        private final Map<Integer, Long> versions = new HashMap<>();
+
+        private final AtomicInteger draining = new AtomicInteger();
+
+        private Conflation(FluxSink<ElevatorUpdate> sink) {
+            this.sink = sink;
+        }
+
+        private void offer(Elevator elevator, ElevatorUpdate update, long version) {
+            synchronized (this) {
+                if (elevators.put(update.getId(), elevator) != elevator) versions.remove(update.getId());
+                Long sent = versions.get(update.getId());
+                if (sent != null && sent >= version) return;
+                versions.put(update.getId(), version);
+                pending.put(update.getId(), update);
+            }
+            drain();
+        }
+
+        /**
+         * Sends the waiting updates while the subscriber requests them, only one thread sends at a time - the
+         * others leave the updates they added to it
+         */
+        private void drain() {
+            if (draining.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    ElevatorUpdate next = poll();
+                    if (next == null) break;
+                    sink.next(next);
+                }
+                missed = draining.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private synchronized ElevatorUpdate poll() {
+            Iterator<ElevatorUpdate> iterator = pending.values().iterator();
+            if (!iterator.hasNext()) return null;
+            ElevatorUpdate next = iterator.next();
+            iterator.remove();
+            return next;
+        }
+    }
+}
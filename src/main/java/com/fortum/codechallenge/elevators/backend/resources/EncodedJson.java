@@ -0,0 +1,41 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON encoding of the last value served, kept as long as the same instance is served. Together with the views of
+ * the elevators, which are replaced only when the elevators change, it lets all readers share the same bytes
+ */
+final class EncodedJson {
+
+    private volatile Encoded last = new Encoded(null, null);
+
+    /**
+     * Used to get the JSON encoding of the value, the value is encoded only if it is not the last encoded one
+     *
+     * @param value        value which should be served
+     * @param objectMapper mapper used to encode the value
+     * @return JSON bytes of the value, they must not be modified
+     * @throws JsonProcessingException if the value cannot be encoded
+     */
+    byte[] of(Object value, ObjectMapper objectMapper) throws JsonProcessingException {
+        Encoded encoded = last;
+        if (encoded.value == value && value != null) return encoded.bytes;
+        encoded = new Encoded(value, objectMapper.writeValueAsBytes(value));
+        last = encoded;
+        return encoded.bytes;
+    }
+
+    private static final class Encoded {
+
+        private final Object value;
+
+        private final byte[] bytes;
+
+        private Encoded(Object value, byte[] bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.ElevatorMetricsReport;
+import com.fortum.codechallenge.elevators.backend.api.LatencySummary;
+import com.fortum.codechallenge.elevators.backend.config.RequestLatencyFilter;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorMetrics;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Rest resources used to get times measured in the default building and latencies of the rest resources. Times
+ * measured in other buildings are provided by {@link BuildingEndPoints}
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/rest/v1/metrics")
+public final class MetricsEndPoints {
+
+    @Autowired
+    private ElevatorMetrics elevatorMetrics;
+
+    @Autowired
+    private RequestLatencyFilter requestLatencyFilter;
+
+    /**
+     * Service used to get times measured in the default building
+     *
+     * @return summaries of wait, ride and dispatch times in the building and per elevator
+     */
+    @ApiOperation(
+            value = "The service returns wait, ride and dispatch times measured in the building",
+            notes = "Wait time lasts from the call on the floor until the chosen elevator stops there, ride time " +
+                    "from choosing the floor inside the elevator until it stops there, both are given in " +
+                    "milliseconds. Dispatch latency is the time spent choosing the elevator in nanoseconds")
+    @RequestMapping(method = RequestMethod.GET)
+    public ElevatorMetricsReport getMetrics() {
+        return elevatorMetrics.report();
+    }
+
+    /**
+     * Service used to get latencies of the rest resources
+     *
+     * @return summaries of the latencies in microseconds by the path of the resource
+     */
+    @ApiOperation(value = "The service returns latencies of the rest resources in microseconds")
+    @RequestMapping(value = "/requests", method = RequestMethod.GET)
+    public Map<String, LatencySummary> getRequestLatencies() {
+        return requestLatencyFilter.summaries();
+    }
+}
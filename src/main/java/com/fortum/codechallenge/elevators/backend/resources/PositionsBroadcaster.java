@@ -0,0 +1,112 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEvent;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEventSubscriber;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorEventPipeline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes positions of the elevators to the websocket topic whenever they change.
+ * <p>
+ * Positions are taken from the {@link ElevatorEvent.FloorReached} events, so the elevators are not slowed down by
+ * the broadcasting. When the pipeline drops events, positions of all elevators are pushed again.
+ * <p>
+ * Changes are coalesced within a short window and only the elevators which moved are sent, as a map of elevator id
+ * to the number of the floor it is at. Nothing is sent while the elevators stand still
+ */
+@Component
+public class PositionsBroadcaster {
+
+    /**
+     * Websocket topic the positions are pushed to
+     */
+    static final String POSITIONS_DESTINATION = "/topic/positions";
+
+    private final ElevatorController elevatorController;
+
+    private final SimpMessagingTemplate template;
+
+    private final ScheduledExecutorService executor;
+
+    private final long coalesceMillis;
+
+    private final Map<Integer, Integer> changedPositions = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Class constructor
+     *
+     * @param elevatorController controller which elevators' positions will be pushed
+     * @param events             pipeline publishing the events of the controller's elevators
+     * @param template           template used to send the positions
+     * @param taskExecutor       executor on which the coalesced positions are sent
+     * @param coalesceMillis     time in milliseconds during which the changes are collected before being sent
+     */
+    public PositionsBroadcaster(ElevatorController elevatorController, ElevatorEventPipeline events,
+                                SimpMessagingTemplate template, ScheduledExecutorService taskExecutor,
+                                @Value("${com.fortum.codechallenge.positions.coalesceMillis}") long coalesceMillis) {
+        this.elevatorController = elevatorController;
+        this.template = template;
+        this.executor = taskExecutor;
+        this.coalesceMillis = coalesceMillis;
+        events.subscribe(new ElevatorEventSubscriber() {
+            @Override
+            public void eventsPublished(List<ElevatorEvent> events) {
+                for (ElevatorEvent event : events) {
+                    if (event instanceof ElevatorEvent.FloorReached) {
+                        positionChanged(event.getElevatorId(), ((ElevatorEvent.FloorReached) event).getFloor());
+                    }
+                }
+            }
+
+            @Override
+            public void eventsDropped(long droppedEvents) {
+                publishAll();
+            }
+        });
+    }
+
+    /**
+     * Used to push positions of all elevators, e.g. after they were installed
+     */
+    public void publishAll() {
+        for (Elevator elevator : elevatorController.getElevators()) {
+            positionChanged(elevator.getId(), elevator.currentFloor());
+        }
+    }
+
+    private void positionChanged(int elevatorId, int floor) {
+        changedPositions.put(elevatorId, floor);
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends positions collected since the last flush, position changed again during the flush stays for the next one
+     */
+    void flush() {
+        flushScheduled.set(false);
+        Map<Integer, Integer> positions = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> changed : changedPositions.entrySet()) {
+            positions.put(changed.getKey(), changed.getValue());
+            changedPositions.remove(changed.getKey(), changed.getValue());
+        }
+        if (!positions.isEmpty()) {
+            template.convertAndSend(POSITIONS_DESTINATION, positions);
+        }
+    }
+}
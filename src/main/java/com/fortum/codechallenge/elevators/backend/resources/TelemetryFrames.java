@@ -0,0 +1,60 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Compact binary encoding of the elevators' telemetry.
+ * <p>
+ * Frame starts with a header: format version (1 byte), frame type (1 byte - {@link #FULL} or {@link #DELTA}) and
+ * number of elevators (4 bytes), followed by one fixed-width record of {@link #RECORD_BYTES} per elevator:
+ * id (4 bytes), floor (2 bytes, unsigned), direction ordinal (1 byte), status ordinal (1 byte) and addressed floor
+ * (2 bytes, unsigned). All numbers are big-endian
+ */
+public final class TelemetryFrames {
+
+    /**
+     * Version of the frame format
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Frame with all installed elevators
+     */
+    public static final byte FULL = 0;
+
+    /**
+     * Frame with only the elevators which changed since the previous frame
+     */
+    public static final byte DELTA = 1;
+
+    static final int HEADER_BYTES = 6;
+
+    static final int RECORD_BYTES = 10;
+
+    private TelemetryFrames() {
+    }
+
+    /**
+     * Used to encode the updates into one frame
+     *
+     * @param type    type of the frame, {@link #FULL} or {@link #DELTA}
+     * @param updates states of the elevators
+     * @return ByteBuffer ready to be read, containing the frame
+     */
+    public static ByteBuffer encode(byte type, Collection<ElevatorUpdate> updates) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + RECORD_BYTES * updates.size());
+        frame.put(VERSION).put(type).putInt(updates.size());
+        for (ElevatorUpdate update : updates) {
+            frame.putInt(update.getId())
+                    .putShort((short) update.getFloor())
+                    .put((byte) update.getDirection().ordinal())
+                    .put((byte) update.getStatus().ordinal())
+                    .putShort((short) update.getAddressedFloor());
+        }
+        frame.flip();
+        return frame;
+    }
+}
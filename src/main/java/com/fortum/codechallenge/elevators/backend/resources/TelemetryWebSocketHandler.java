@@ -0,0 +1,83 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Raw websocket endpoint pushing the elevators' telemetry in the binary {@link TelemetryFrames} format.
+ * <p>
+ * Newly connected client gets a {@link TelemetryFrames#FULL} frame, then {@link TelemetryFrames#DELTA} frames with
+ * the elevators changed within each coalescing window. Every frame is encoded once and shared by all clients, slow
+ * clients are buffered up to a limit and disconnected when they exceed it
+ */
+@Component
+public class TelemetryWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MILLIS = 5000;
+
+    private static final int BUFFER_SIZE_LIMIT_BYTES = 1024 * 1024;
+
+    private final ElevatorController elevatorController;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor
+     *
+     * @param elevatorController controller which elevators' telemetry will be pushed
+     * @param updatesStream      stream of the elevators' changes
+     * @param coalesceMillis     time in milliseconds during which the changes are collected before being sent
+     */
+    public TelemetryWebSocketHandler(ElevatorController elevatorController, ElevatorUpdatesStream updatesStream,
+                                     @Value("${com.fortum.codechallenge.positions.coalesceMillis}") long coalesceMillis) {
+        this.elevatorController = elevatorController;
+        updatesStream.changes()
+                .buffer(Duration.ofMillis(coalesceMillis))
+                .filter(updates -> !updates.isEmpty() && !sessions.isEmpty())
+                .subscribe(this::broadcastDelta);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        WebSocketSession concurrentSession =
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MILLIS, BUFFER_SIZE_LIMIT_BYTES);
+        List<ElevatorUpdate> updates = elevatorController.getElevators().stream()
+                .map(elevator -> ElevatorUpdate.of(elevator, elevator.getSnapshot()))
+                .collect(Collectors.toList());
+        concurrentSession.sendMessage(new BinaryMessage(TelemetryFrames.encode(TelemetryFrames.FULL, updates)));
+        sessions.put(session.getId(), concurrentSession);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+
+    private void broadcastDelta(List<ElevatorUpdate> updates) {
+        Map<Integer, ElevatorUpdate> latest = new TreeMap<>();
+        updates.forEach(update -> latest.put(update.getId(), update));
+        BinaryMessage message = new BinaryMessage(TelemetryFrames.encode(TelemetryFrames.DELTA, latest.values()));
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                session.sendMessage(new BinaryMessage(message.getPayload().duplicate()));
+            } catch (IOException | RuntimeException e) {
+                sessions.remove(session.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.impl.TrafficLog;
+import com.fortum.codechallenge.elevators.backend.impl.TrafficReplay;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Records the traffic handled by {@link ElevatorControllerEndPoints} to the {@link TrafficLog}, so it can be
+ * replayed by {@link TrafficReplay}. Only the requests accepted by the controller are recorded. Recording is enabled
+ * when the file of the log is configured, otherwise all calls are ignored
+ */
+@Component
+public class TrafficRecorder {
+
+    private final TrafficLog.Writer writer;
+
+    /**
+     * Class constructor
+     *
+     * @param recordFile file the traffic should be recorded to, empty if it should not be recorded
+     * @throws IOException if the file cannot be created
+     */
+    public TrafficRecorder(@Value("${com.fortum.codechallenge.traffic.recordFile:}") String recordFile)
+            throws IOException {
+        this.writer = recordFile.isEmpty() ? null : new TrafficLog.Writer(Paths.get(recordFile));
+    }
+
+    public void installed(int numberOfElevators, int numberOfFloors) {
+        if (writer == null) return;
+        try {
+            writer.installed(System.currentTimeMillis(), numberOfElevators, numberOfFloors);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void installed(int numberOfFloors, List<ElevatorZone> zones) {
+        if (writer == null) return;
+        try {
+            writer.installed(System.currentTimeMillis(), numberOfFloors, zones);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void called(int floor, CallingDirection direction) {
+        if (writer == null) return;
+        try {
+            writer.called(System.currentTimeMillis(), floor, direction);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void destinationCalled(int fromFloor, int toFloor) {
+        if (writer == null) return;
+        try {
+            writer.destinationCalled(System.currentTimeMillis(), fromFloor, toFloor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void addressed(int elevatorId, int floor) {
+        if (writer == null) return;
+        try {
+            writer.addressed(System.currentTimeMillis(), elevatorId, floor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer != null) writer.close();
+    }
+}
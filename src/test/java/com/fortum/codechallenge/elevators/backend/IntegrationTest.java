@@ -1,6 +1,7 @@
 package com.fortum.codechallenge.elevators.backend;
 
 import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
 import com.fortum.codechallenge.elevators.backend.api.Status;
 import com.fortum.codechallenge.elevators.backend.resources.ElevatorControllerEndPoints;
 import org.junit.jupiter.api.Test;
@@ -24,6 +25,9 @@ public class IntegrationTest {
     @Autowired
     private ElevatorControllerEndPoints endpoints;
 
+    @Autowired
+    private ElevatorController elevatorController;
+
     @Test
     @SuppressWarnings("StatementWithEmptyBody")
     public void simulateAnElevatorShaftTest() {
@@ -35,7 +39,7 @@ public class IntegrationTest {
         assertThat(endpoints.callElevator(7, CallingDirection.DOWN)).isEqualTo(2);
         assertThat(endpoints.callElevator(2, CallingDirection.UP)).isEqualTo(3);
 
-        while (endpoints.getElevatorsStatuses().contains(Status.RUN)) {
+        while (elevatorController.getElevatorStatuses().contains(Status.RUN)) {
             // intentionally left empty
         }
 
@@ -49,7 +53,7 @@ public class IntegrationTest {
         assertThat(endpoints.addressElevator(3, 2)).isEqualTo(true);
         assertThat(endpoints.callElevator(4, CallingDirection.UP)).isEqualTo(3);
 
-        while (endpoints.getElevatorsStatuses().contains(Status.RUN)) {
+        while (elevatorController.getElevatorStatuses().contains(Status.RUN)) {
             // intentionally left empty
         }
         assertThat(endpoints.getElevatorsPositions())
@@ -67,7 +71,7 @@ public class IntegrationTest {
         assertThat(endpoints.addressElevator(3, 0)).isEqualTo(true);
 
 
-        while (endpoints.getElevatorsStatuses().contains(Status.RUN)) {
+        while (elevatorController.getElevatorStatuses().contains(Status.RUN)) {
             // intentionally left empty
         }
 
@@ -0,0 +1,89 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Used to test {@link BuildingRegistry}
+ */
+public class BuildingRegistryTest {
+
+    @Test
+    public void installIndependentBuildingsTest() {
+        BuildingRegistry buildingRegistry = new BuildingRegistry(10);
+        ElevatorController tower = buildingRegistry.install("tower", 3, 30).orElseThrow();
+        ElevatorController house = buildingRegistry.install("house", 1, 3).orElseThrow();
+
+        assertThat(buildingRegistry.getBuildingIds()).containsExactlyInAnyOrder("tower", "house");
+        assertThat(buildingRegistry.find("tower")).containsSame(tower);
+        assertThat(buildingRegistry.find("garage")).isEmpty();
+        assertThat(tower.getElevators()).hasSize(3);
+        assertThat(house.getElevators()).hasSize(1);
+
+        assertThat(house.requestElevator(1, Direction.UP)).isEqualTo(0);
+        assertThat(tower.getElevatorStatuses()).containsOnly(Status.WAIT);
+
+        assertThat(buildingRegistry.remove("house")).isTrue();
+        assertThat(buildingRegistry.remove("house")).isFalse();
+        assertThat(buildingRegistry.getBuildingIds()).containsExactly("tower");
+        buildingRegistry.shutdown();
+        assertThat(buildingRegistry.getBuildingIds()).isEmpty();
+    }
+
+    @Test
+    public void newBuildingsAreRejectedPastTheLimitTest() {
+        BuildingRegistry buildingRegistry = new BuildingRegistry(10);
+        for (int building = 0; building < BuildingRegistry.MAX_BUILDINGS; building++) {
+            assertThat(buildingRegistry.install("building-" + building, 1, 3)).isPresent();
+        }
+        assertThat(buildingRegistry.install("one-too-many", 1, 3)).isEmpty();
+        assertThat(buildingRegistry.find("one-too-many")).isEmpty();
+        assertThat(buildingRegistry.install("building-0", 2, 5).orElseThrow().getElevators()).hasSize(2);
+
+        assertThat(buildingRegistry.remove("building-1")).isTrue();
+        assertThat(buildingRegistry.install("one-too-many", 1, 3)).isPresent();
+        buildingRegistry.shutdown();
+    }
+
+    @Test
+    public void buildingIsRemovedOnceRequestsInItAreServedTest() throws Exception {
+        BuildingRegistry buildingRegistry = new BuildingRegistry(10);
+        buildingRegistry.install("house", 1, 3).orElseThrow();
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch requestMayFinish = new CountDownLatch(1);
+
+        CompletableFuture<Integer> request = CompletableFuture.supplyAsync(() ->
+                buildingRegistry.inBuilding("house", elevatorController -> {
+                    requestStarted.countDown();
+                    await(requestMayFinish);
+                    return elevatorController.requestElevator(1, Direction.UP);
+                }).orElseThrow());
+        assertThat(requestStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> removal = CompletableFuture.supplyAsync(() -> buildingRegistry.remove("house"));
+
+        while (!buildingRegistry.getBuildingIds().isEmpty()) Thread.onSpinWait();
+        assertThat(buildingRegistry.inBuilding("house", ElevatorController::getElevatorsPositions)).isEmpty();
+        assertThat(removal).isNotDone();
+        requestMayFinish.countDown();
+        assertThat(request.get(5, TimeUnit.SECONDS)).isEqualTo(0);
+        assertThat(removal.get(5, TimeUnit.SECONDS)).isTrue();
+        buildingRegistry.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
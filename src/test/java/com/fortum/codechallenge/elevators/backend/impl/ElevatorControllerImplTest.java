@@ -1,11 +1,26 @@
 package com.fortum.codechallenge.elevators.backend.impl;
 
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
 import com.fortum.codechallenge.elevators.backend.api.Direction;
 import com.fortum.codechallenge.elevators.backend.api.Elevator;
 import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEvent;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.api.HallCall;
+import com.fortum.codechallenge.elevators.backend.api.Status;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -33,6 +48,40 @@ public class ElevatorControllerImplTest {
         assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(1);
     }
 
+    @Test
+    public void floorsOutsideOfTheBuildingAreRejectedTest() {
+        ElevatorController elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        elevatorController.installElevators(3, 10);
+        assertThat(elevatorController.requestElevator(10, Direction.DOWN)).isEqualTo(-1);
+        assertThat(elevatorController.requestElevator(-1, Direction.UP)).isEqualTo(-1);
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(1, 10)).isFalse();
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(1, -1)).isFalse();
+        assertThat(elevatorController.getElevatorStatuses()).containsOnly(Status.WAIT);
+    }
+
+    @Test
+    public void requestElevatorsTest() {
+        ElevatorController elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        elevatorController.installElevators(3, 10);
+        assertThat(elevatorController.requestElevators(Arrays.asList(
+                new HallCall(3, CallingDirection.UP),
+                new HallCall(3, CallingDirection.UP),
+                new HallCall(8, CallingDirection.DOWN)))).containsExactly(1, 1, 2);
+    }
+
+    @Test
+    public void requestElevatorsRejectsBatchWithInvalidCallTest() {
+        ElevatorController elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        elevatorController.installElevators(3, 10);
+        assertThat(elevatorController.requestElevators(Arrays.asList(
+                new HallCall(3, CallingDirection.UP),
+                new HallCall(-1, CallingDirection.UP)))).containsExactly(-1, -1);
+        assertThat(elevatorController.requestElevators(Arrays.asList(
+                new HallCall(10, CallingDirection.DOWN),
+                new HallCall(8, CallingDirection.DOWN)))).containsExactly(-1, -1);
+        assertThat(elevatorController.getElevatorStatuses()).containsOnly(Status.WAIT);
+    }
+
     @Test
     public void chooseDestinationFloorWhenInsideTest() {
         ElevatorController elevatorController = new ElevatorControllerImpl();
@@ -42,4 +91,282 @@ public class ElevatorControllerImplTest {
         assertThat(elevatorController.chooseDestinationFloorWhenInside(1, 2)).isEqualTo(true);
     }
 
+    @Test
+    public void simulateAnElevatorShaftInVirtualTimeTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(4, 10);
+
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(3);
+        assertThat(elevatorController.requestElevator(7, Direction.DOWN)).isEqualTo(2);
+        assertThat(elevatorController.requestElevator(2, Direction.UP)).isEqualTo(3);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactly(0, 0, 7, 3);
+
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(1, 7)).isEqualTo(true);
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(1, 6)).isEqualTo(true);
+        assertThat(elevatorController.requestElevator(5, Direction.DOWN)).isEqualTo(3);
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(3, 2)).isEqualTo(true);
+        assertThat(elevatorController.requestElevator(4, Direction.UP)).isEqualTo(3);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactly(0, 7, 7, 2);
+    }
+
+    @Test
+    public void findBestElevatorMatchesScoringAllElevatorsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(30, 40);
+        HeuristicDispatchStrategy heuristic = new HeuristicDispatchStrategy();
+        Random random = new Random(7);
+
+        for (int call = 0; call < 2000; call++) {
+            int floor = random.nextInt(40);
+            Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+
+            Elevator expected = null;
+            int bestScore = Integer.MIN_VALUE;
+            for (Elevator elevator : elevatorController.getElevators()) {
+                int score = heuristic.calculateElevatorScore(elevator.getSnapshot(), floor, direction, 40);
+                if (score > bestScore || (score == bestScore && elevator.getId() > expected.getId())) {
+                    bestScore = score;
+                    expected = elevator;
+                }
+            }
+            assertThat(elevatorController.findBestElevator(floor, direction)).isSameAs(expected);
+
+            elevatorController.requestElevator(floor, direction);
+            scheduler.advance(random.nextInt(2000));
+        }
+    }
+
+    @Test
+    public void findBestElevatorMatchesScoringAllLoadedElevatorsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(30, 40);
+        HeuristicDispatchStrategy heuristic = new HeuristicDispatchStrategy();
+        Random random = new Random(5);
+
+        for (int call = 0; call < 2000; call++) {
+            int floor = random.nextInt(40);
+            Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+            int loaded = random.nextInt(30);
+            elevatorController.updateLoad(loaded, 0, elevatorController.getElevators().get(loaded).getLoad());
+            elevatorController.updateLoad(loaded, random.nextInt(ElevatorImpl.DEFAULT_CAPACITY + 1), 0);
+
+            Elevator expected = heuristic.chooseElevator(elevatorController.getElevators(), floor, direction, 40, 0);
+            assertThat(elevatorController.findBestElevator(floor, direction)).isSameAs(expected);
+
+            elevatorController.requestElevator(floor, direction);
+            scheduler.advance(random.nextInt(2000));
+        }
+    }
+
+    /**
+     * Coarse guard of the dispatch latency in the largest building, the mean is kept ten times above the one
+     * millisecond target of the 99th percentile, so that a slow machine does not fail it. The percentiles are
+     * measured by DispatchLatencyBenchmark in the benchmark profile
+     */
+    @Test
+    public void callsInTheLargestBuildingAreDispatchedQuicklyTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(10_000, 500);
+        Random random = new Random(3);
+        for (int elevator = 0; elevator < 10_000; elevator++) {
+            elevatorController.chooseDestinationFloorWhenInside(elevator, random.nextInt(500));
+        }
+        scheduler.advance(1_000);
+
+        long elapsedNanos = 0;
+        for (int call = 0; call < 4_000; call++) {
+            if (call % 200 == 0) scheduler.advance(SimulationScheduler.DEFAULT_TICK_MILLIS);
+            int floor = random.nextInt(500);
+            long startNanos = System.nanoTime();
+            int elevator = call % 2 == 0
+                    ? elevatorController.requestElevator(floor, random.nextBoolean() ? Direction.UP : Direction.DOWN)
+                    : elevatorController.requestElevatorToDestination(floor, (floor + 1 + random.nextInt(499)) % 500);
+            if (call >= 2_000) elapsedNanos += System.nanoTime() - startNanos;
+            assertThat(elevator).isBetween(0, 9_999);
+        }
+        assertThat(elapsedNanos / 2_000).isLessThan(10_000_000L);
+    }
+
+    @Test
+    public void positionsAreSharedUntilElevatorsChangeTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(3, 10);
+        List<Integer> positions = elevatorController.getElevatorsPositions();
+        assertThat(elevatorController.getElevatorsPositions()).isSameAs(positions);
+        assertThat(elevatorController.getElevatorStatuses()).isSameAs(elevatorController.getElevatorStatuses());
+
+        elevatorController.requestElevator(4, Direction.UP);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).isNotSameAs(positions).containsExactly(0, 4, 9);
+        assertThat(elevatorController.getElevatorStatuses()).containsOnly(Status.WAIT);
+    }
+
+    @Test
+    public void destinationCallsAreGroupedBySimilarDestinationsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(2, 20);
+
+        int highRise = elevatorController.requestElevatorToDestination(0, 15);
+        assertThat(elevatorController.requestElevatorToDestination(0, 16)).isEqualTo(highRise);
+        int lowRise = elevatorController.requestElevatorToDestination(0, 3);
+        assertThat(lowRise).isNotEqualTo(highRise);
+        assertThat(elevatorController.requestElevatorToDestination(0, 4)).isEqualTo(lowRise);
+        assertThat(elevatorController.requestElevatorToDestination(0, 0)).isEqualTo(-1);
+        assertThat(elevatorController.requestElevatorToDestination(0, 20)).isEqualTo(-1);
+
+        scheduler.advance(SimulationScheduler.DEFAULT_TICK_MILLIS);
+        assertThat(elevatorController.getElevators().get(highRise).getLoad()).isEqualTo(2);
+        assertThat(elevatorController.getElevators().get(lowRise).getLoad()).isEqualTo(2);
+
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevators()).allMatch(elevator -> elevator.getLoad() == 0);
+        assertThat(elevatorController.getElevatorsPositions().get(highRise)).isEqualTo(16);
+        assertThat(elevatorController.getElevatorsPositions().get(lowRise)).isEqualTo(4);
+    }
+
+    @Test
+    public void destinationGroupPassedByIsPickedUpTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(1, 10);
+        assertThat(elevatorController.requestElevator(5, Direction.UP)).isZero();
+        scheduler.advance(2000);
+
+        assertThat(elevatorController.requestElevatorToDestination(1, 8)).isZero();
+        assertThat(elevatorController.requestElevatorToDestination(1, 7)).isZero();
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactly(8);
+        assertThat(elevatorController.getElevators().get(0).getLoad()).isZero();
+    }
+
+    @Test
+    public void fullElevatorIsPassedOverTest() {
+        ElevatorController elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        elevatorController.installElevators(3, 10);
+        assertThat(elevatorController.updateLoad(1, ElevatorImpl.DEFAULT_CAPACITY, 0))
+                .isEqualTo(ElevatorImpl.DEFAULT_CAPACITY);
+        assertThat(elevatorController.updateLoad(99, 1, 0)).isEqualTo(-1);
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(0);
+
+        assertThat(elevatorController.updateLoad(1, 0, ElevatorImpl.DEFAULT_CAPACITY)).isZero();
+        assertThat(elevatorController.requestElevator(2, Direction.DOWN)).isEqualTo(1);
+    }
+
+    @Test
+    public void repeatedCallIsServedByElevatorOnItsWayTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(3, 10);
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(1);
+        elevatorController.updateLoad(1, ElevatorImpl.DEFAULT_CAPACITY, 0);
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(1);
+        assertThat(elevatorController.requestElevators(Arrays.asList(new HallCall(3, CallingDirection.UP),
+                new HallCall(3, CallingDirection.UP)))).containsExactly(1, 1);
+
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions().get(1)).isEqualTo(3);
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(0);
+        elevatorController.updateLoad(1, 0, ElevatorImpl.DEFAULT_CAPACITY);
+        assertThat(elevatorController.requestElevator(3, Direction.UP)).isEqualTo(0);
+    }
+
+    @Test
+    public void repeatedCallRestartsElevatorWhichPassedTheFloorTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(1, 10);
+        assertThat(elevatorController.requestElevator(5, Direction.UP)).isZero();
+        scheduler.advance(2000);
+        assertThat(elevatorController.requestElevator(1, Direction.UP)).isZero();
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactly(5);
+
+        assertThat(elevatorController.requestElevator(1, Direction.UP)).isZero();
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactly(1);
+    }
+
+    @Test
+    public void repeatedCallIsDispatchedOnceUntilServedInItsDirectionTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        List<ElevatorEvent> assigned = assignedCalls(elevatorController);
+        elevatorController.installElevators(1, 10);
+        elevatorController.requestElevator(8, Direction.UP);
+        scheduler.advance(1200);
+        elevatorController.requestElevator(5, Direction.DOWN);
+        elevatorController.chooseDestinationFloorWhenInside(0, 5);
+        while (elevatorController.getElevatorsPositions().get(0) != 5) scheduler.advance(100);
+
+        assertThat(elevatorController.requestElevator(5, Direction.DOWN)).isZero();
+        scheduler.advance(1500);
+        assertThat(elevatorController.requestElevator(5, Direction.DOWN)).isZero();
+        assertThat(assigned).hasSize(2);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.requestElevator(5, Direction.DOWN)).isZero();
+        assertThat(assigned).hasSize(3);
+    }
+
+    @Test
+    public void concurrentRepeatedCallsAreDispatchedOnceTest() throws Exception {
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        List<ElevatorEvent> assigned = assignedCalls(elevatorController);
+        elevatorController.installElevators(10, 20);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int caller = 0; caller < 8; caller++) {
+                calls.add(callers.submit(() -> {
+                    start.await();
+                    return elevatorController.requestElevator(12, Direction.DOWN);
+                }));
+            }
+            start.countDown();
+            int elevatorId = calls.get(0).get();
+            for (Future<Integer> call : calls) assertThat(call.get()).isEqualTo(elevatorId);
+            assertThat(assigned).hasSize(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static List<ElevatorEvent> assignedCalls(ElevatorControllerImpl elevatorController) {
+        List<ElevatorEvent> assigned = Collections.synchronizedList(new ArrayList<>());
+        ElevatorEventPipeline events = new ElevatorEventPipeline(() -> 0, Runnable::run, 1024, 64);
+        events.subscribe(batch -> batch.stream().filter(event -> event instanceof ElevatorEvent.CallAssigned)
+                .forEach(assigned::add));
+        elevatorController.attachEvents(events);
+        return assigned;
+    }
+
+    @Test
+    public void callsAreDispatchedWithinZonesTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorController elevatorController = new ElevatorControllerImpl(scheduler);
+        List<ElevatorZone> zones = Arrays.asList(new ElevatorZone(2, 1, 9, true), new ElevatorZone(2, 10, 19, true));
+        assertThat(elevatorController.installZones(20, Arrays.asList(new ElevatorZone(2, 10, 20, true)))).isFalse();
+        assertThat(elevatorController.installZones(20, zones)).isTrue();
+        assertThat(elevatorController.getElevators()).hasSize(4);
+
+        assertThat(elevatorController.requestElevator(5, Direction.UP)).isIn(0, 1);
+        assertThat(elevatorController.requestElevator(15, Direction.DOWN)).isIn(2, 3);
+        assertThat(elevatorController.requestElevatorToDestination(0, 12)).isIn(2, 3);
+        assertThat(elevatorController.requestElevatorToDestination(0, 4)).isIn(0, 1);
+        assertThat(elevatorController.requestElevatorToDestination(3, 12)).isEqualTo(-1);
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(0, 15)).isFalse();
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(2, 0)).isTrue();
+        scheduler.runUntilIdle();
+        for (Elevator elevator : elevatorController.getElevators()) {
+            assertThat(elevator.servesFloor(elevator.currentFloor())).isTrue();
+        }
+    }
 }
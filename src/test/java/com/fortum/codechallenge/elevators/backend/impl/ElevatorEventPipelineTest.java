@@ -0,0 +1,72 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEvent;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorEventSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link ElevatorEventPipeline}
+ */
+public class ElevatorEventPipelineTest {
+
+    @Test
+    public void publishCallAndMovementEventsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        ElevatorEventPipeline events = new ElevatorEventPipeline(scheduler::currentTimeMillis, Runnable::run, 64, 8);
+        elevatorController.attachEvents(events);
+        elevatorController.installElevators(1, 10);
+        List<String> published = new ArrayList<>();
+        events.subscribe(batch -> batch.forEach(event -> published.add(event.toString())));
+
+        elevatorController.requestElevator(2, Direction.UP);
+        scheduler.runUntilIdle();
+
+        assertThat(published).startsWith(
+                new ElevatorEvent.CallAssigned(0, 0, 2, Direction.UP).toString(),
+                "DirectionChanged{elevator=0, NONE -> UP}",
+                "StatusChanged{elevator=0, WAIT -> RUN}");
+        assertThat(published).containsSubsequence(
+                "FloorReached{elevator=0, floor=1}",
+                "FloorReached{elevator=0, floor=2}",
+                "DoorsOpened{elevator=0, floor=2}",
+                "StatusChanged{elevator=0, RUN -> WAIT}");
+        assertThat(published).doesNotContain("DoorsOpened{elevator=0, floor=1}");
+        assertThat(events.getDroppedEvents()).isZero();
+    }
+
+    @Test
+    public void fullQueueDropsEventsRightAwayTest() {
+        List<Runnable> drains = new ArrayList<>();
+        ElevatorEventPipeline events = new ElevatorEventPipeline(() -> 0, drains::add, 2, 8);
+        List<String> delivered = new ArrayList<>();
+        events.subscribe(new ElevatorEventSubscriber() {
+            @Override
+            public void eventsPublished(List<ElevatorEvent> batch) {
+                delivered.add("batch of " + batch.size());
+            }
+
+            @Override
+            public void eventsDropped(long droppedEvents) {
+                delivered.add("dropped " + droppedEvents);
+            }
+        });
+
+        for (int floor = 0; floor < 4; floor++) events.publish(new ElevatorEvent.FloorReached(0, 0, floor));
+        assertThat(events.getDroppedEvents()).isEqualTo(2);
+        assertThat(drains).hasSize(1);
+
+        drains.get(0).run();
+        assertThat(delivered).containsExactly("dropped 2", "batch of 2");
+
+        events.publish(new ElevatorEvent.FloorReached(0, 0, 4));
+        drains.get(1).run();
+        assertThat(delivered).containsExactly("dropped 2", "batch of 2", "batch of 1");
+    }
+}
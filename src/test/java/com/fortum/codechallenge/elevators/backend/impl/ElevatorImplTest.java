@@ -34,5 +34,39 @@ public class ElevatorImplTest {
         assertThat(elevator.currentFloor()).isEqualTo(6);
     }
 
-}
+    @Test
+    void elevatorRunInVirtualTimeTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(100);
+        ElevatorImpl elevator = new ElevatorImpl(1, 0, 10, scheduler);
+        elevator.startElevator(2);
+
+        scheduler.advance(100);
+        assertThat(elevator.currentFloor()).isEqualTo(1);
+        scheduler.advance(ElevatorImpl.FLOOR_TRAVEL_MILLIS);
+        assertThat(elevator.currentFloor()).isEqualTo(2);
+        assertThat(elevator.getStatus()).isEqualTo(Status.RUN);
+
+        assertThat(scheduler.runUntilIdle()).isEqualTo(ElevatorImpl.STOP_MILLIS);
+        assertThat(elevator.getStatus()).isEqualTo(Status.WAIT);
+        assertThat(elevator.currentFloor()).isEqualTo(2);
+    }
 
+    @Test
+    void advanceVirtualTimeByPartsOfTickTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(100);
+        ElevatorImpl elevator = new ElevatorImpl(1, 0, 10, scheduler);
+        elevator.startElevator(2);
+
+        scheduler.advance(50);
+        assertThat(scheduler.currentTimeMillis()).isEqualTo(50);
+        assertThat(elevator.currentFloor()).isEqualTo(0);
+        scheduler.advance(50);
+        assertThat(elevator.currentFloor()).isEqualTo(1);
+
+        scheduler.advance(350);
+        scheduler.advance(350);
+        assertThat(scheduler.currentTimeMillis()).isEqualTo(800);
+        assertThat(elevator.currentFloor()).isEqualTo(2);
+    }
+
+}
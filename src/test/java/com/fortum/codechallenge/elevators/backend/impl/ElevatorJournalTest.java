@@ -0,0 +1,141 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link ElevatorJournal}
+ */
+public class ElevatorJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void recoverFromJournalTest() throws IOException {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            elevatorController.attachJournal(journal);
+            elevatorController.installElevators(4, 10);
+            elevatorController.requestElevator(3, Direction.UP);
+            elevatorController.requestElevator(7, Direction.DOWN);
+            scheduler.advance(2000);
+        }
+
+        VirtualTimeScheduler recoveredScheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl recoveredController = new ElevatorControllerImpl(recoveredScheduler);
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            assertThat(journal.recover(recoveredController)).isTrue();
+        }
+        assertThat(recoveredController.getElevatorsPositions()).isEqualTo(elevatorController.getElevatorsPositions());
+        assertThat(recoveredController.getElevatorStatuses()).isEqualTo(elevatorController.getElevatorStatuses());
+
+        scheduler.runUntilIdle();
+        recoveredScheduler.runUntilIdle();
+        assertThat(recoveredController.getElevatorsPositions()).containsExactly(0, 0, 7, 3);
+        assertThat(recoveredController.getElevatorStatuses()).containsOnly(Status.WAIT);
+    }
+
+    @Test
+    public void recoverFromSnapshotAndJournalTailTest() throws IOException {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            elevatorController.attachJournal(journal);
+            elevatorController.installElevators(3, 100);
+            elevatorController.requestElevator(70, Direction.DOWN);
+            scheduler.runUntilIdle();
+            journal.snapshot(elevatorController);
+            elevatorController.chooseDestinationFloorWhenInside(1, 90);
+            elevatorController.chooseDestinationFloorWhenInside(1, 95);
+            scheduler.advance(3000);
+        }
+
+        try (FileChannel journal = FileChannel.open(directory.resolve(ElevatorJournal.JOURNAL_FILE),
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            journal.write(ByteBuffer.wrap(new byte[]{2, 0, 0}));
+        }
+
+        VirtualTimeScheduler recoveredScheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl recoveredController = new ElevatorControllerImpl(recoveredScheduler);
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            recoveredController.attachJournal(journal);
+            assertThat(journal.recover(recoveredController)).isTrue();
+            assertThat(recoveredController.getElevatorsPositions())
+                    .isEqualTo(elevatorController.getElevatorsPositions());
+            recoveredScheduler.runUntilIdle();
+        }
+
+        ElevatorControllerImpl restartedController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            assertThat(journal.recover(restartedController)).isTrue();
+        }
+        assertThat(restartedController.getElevatorsPositions()).containsExactly(0, 95, 70);
+    }
+
+    @Test
+    public void recordsBeyondOneBufferWaitForFlushTest() throws IOException {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            elevatorController.attachJournal(journal);
+            elevatorController.installElevators(3, 100);
+            for (int call = 0; call < 2000; call++) {
+                elevatorController.requestElevator(call * 37 % 100, call % 2 == 0 ? Direction.UP : Direction.DOWN);
+                scheduler.advance(600);
+            }
+            assertThat(directory.resolve(ElevatorJournal.JOURNAL_FILE)).hasBinaryContent(new byte[0]);
+            elevatorController.chooseDestinationFloorWhenInside(1, 50);
+            scheduler.advance(3000);
+        }
+        assertThat(directory.resolve(ElevatorJournal.JOURNAL_FILE).toFile().length()).isGreaterThan(64 * 1024);
+
+        ElevatorControllerImpl recoveredController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            assertThat(journal.recover(recoveredController)).isTrue();
+        }
+        assertThat(recoveredController.getElevatorsPositions()).isEqualTo(elevatorController.getElevatorsPositions());
+    }
+
+    @Test
+    public void recoverZonesTest() throws IOException {
+        List<ElevatorZone> zones = Arrays.asList(new ElevatorZone(2, 1, 9, true), new ElevatorZone(1, 10, 19, false));
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            elevatorController.attachJournal(journal);
+            elevatorController.installZones(20, zones);
+            journal.snapshot(elevatorController);
+        }
+
+        ElevatorControllerImpl recoveredController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            assertThat(journal.recover(recoveredController)).isTrue();
+        }
+        assertThat(recoveredController.getElevatorsPositions()).isEqualTo(elevatorController.getElevatorsPositions());
+        assertThat(recoveredController.requestElevator(15, Direction.UP)).isEqualTo(2);
+        assertThat(recoveredController.requestElevatorToDestination(0, 15)).isEqualTo(-1);
+    }
+
+    @Test
+    public void recoverWithoutJournalTest() throws IOException {
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(new VirtualTimeScheduler());
+        try (ElevatorJournal journal = new ElevatorJournal(directory)) {
+            assertThat(journal.recover(elevatorController)).isFalse();
+        }
+        assertThat(elevatorController.getElevators()).isEmpty();
+    }
+}
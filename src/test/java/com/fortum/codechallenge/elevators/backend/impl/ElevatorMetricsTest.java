@@ -0,0 +1,43 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorMetricsReport;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * Test used to test class {@link ElevatorMetrics}
+ */
+public class ElevatorMetricsTest {
+
+    @Test
+    public void measureWaitAndRideTimesTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        ElevatorMetrics metrics = new ElevatorMetrics(scheduler::currentTimeMillis);
+        elevatorController.attachMetrics(metrics);
+        elevatorController.installElevators(2, 10);
+
+        assertThat(elevatorController.requestElevator(5, Direction.UP)).isEqualTo(1);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.chooseDestinationFloorWhenInside(1, 8)).isEqualTo(true);
+        scheduler.runUntilIdle();
+
+        ElevatorMetricsReport report = metrics.report();
+        assertThat(report.getDispatchLatencyNanos().getCount()).isEqualTo(1);
+        assertThat(report.getWaitTimeMillis().getCount()).isEqualTo(1);
+        assertThat(report.getWaitTimeMillis().getMax()).isCloseTo(
+                SimulationScheduler.DEFAULT_TICK_MILLIS + 4 * ElevatorImpl.FLOOR_TRAVEL_MILLIS, withinPercentage(1));
+        assertThat(report.getRideTimeMillis().getCount()).isEqualTo(1);
+        assertThat(report.getRideTimeMillis().getMax()).isCloseTo(
+                SimulationScheduler.DEFAULT_TICK_MILLIS + 2 * ElevatorImpl.FLOOR_TRAVEL_MILLIS, withinPercentage(1));
+        assertThat(report.getElevators()).containsOnlyKeys(1);
+        assertThat(report.getElevators().get(1).getRideTimeMillis().getCount()).isEqualTo(1);
+        assertThat(report.getElevators().get(1).getRideTimeMillis().getMax())
+                .isEqualTo(SimulationScheduler.DEFAULT_TICK_MILLIS + 2 * ElevatorImpl.FLOOR_TRAVEL_MILLIS);
+        assertThat(report.getElevators().get(1).getWaitTimeMillis().getMean()).isCloseTo(
+                SimulationScheduler.DEFAULT_TICK_MILLIS + 4 * ElevatorImpl.FLOOR_TRAVEL_MILLIS, withinPercentage(1));
+    }
+}
@@ -0,0 +1,50 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.Elevator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link EtaDispatchStrategy}
+ */
+public class EtaDispatchStrategyTest {
+
+    @Test
+    public void elevatorWithFewerStopsOnTheWayIsChosenTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        Elevator busyElevator = new ElevatorImpl(0, 0, 20, scheduler);
+        Elevator idleElevator = new ElevatorImpl(1, 12, 20, scheduler);
+        busyElevator.address(10, Direction.UP);
+        for (int floor = 2; floor < 8; floor++) busyElevator.address(floor, Direction.UP);
+        scheduler.advance(SimulationScheduler.DEFAULT_TICK_MILLIS);
+        List<Elevator> elevators = Arrays.asList(busyElevator, idleElevator);
+
+        assertThat(new HeuristicDispatchStrategy()
+                .chooseElevator(elevators, 8, Direction.UP, 20, scheduler.currentTimeMillis()))
+                .isSameAs(busyElevator);
+        assertThat(new EtaDispatchStrategy()
+                .chooseElevator(elevators, 8, Direction.UP, 20, scheduler.currentTimeMillis()))
+                .isSameAs(idleElevator);
+    }
+
+    @Test
+    public void estimatedTimeOfArrivalCountsFloorsAndStopsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorImpl elevator = new ElevatorImpl(0, 0, 20, scheduler);
+        EtaDispatchStrategy strategy = new EtaDispatchStrategy();
+
+        assertThat(strategy.estimateTimeOfArrival((ElevatorState) elevator.getSnapshot(), 0, Direction.UP, 0))
+                .isZero();
+        assertThat(strategy.estimateTimeOfArrival((ElevatorState) elevator.getSnapshot(), 5, Direction.UP, 0))
+                .isEqualTo(4 * ElevatorImpl.FLOOR_TRAVEL_MILLIS);
+
+        elevator.address(3, Direction.UP);
+        assertThat(strategy.estimateTimeOfArrival((ElevatorState) elevator.getSnapshot(), 5, Direction.UP, 0))
+                .isEqualTo(3 * ElevatorImpl.FLOOR_TRAVEL_MILLIS + ElevatorImpl.STOP_MILLIS);
+    }
+}
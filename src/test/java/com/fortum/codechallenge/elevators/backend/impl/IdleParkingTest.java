@@ -0,0 +1,38 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link IdleParking}
+ */
+public class IdleParkingTest {
+
+    @Test
+    public void idleElevatorIsParkedWhereCallsWereMadeDayBeforeTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(2, 20);
+        elevatorController.attachParking(new IdleParking(scheduler::currentTimeMillis, 10_000));
+        scheduler.advance(20_000);
+        assertThat(elevatorController.parkIdleElevators()).isZero();
+
+        for (int call = 0; call < IdleParking.MIN_CALLS; call++) {
+            int elevatorId = elevatorController.requestElevator(15, Direction.DOWN);
+            scheduler.runUntilIdle();
+            elevatorController.chooseDestinationFloorWhenInside(elevatorId, 0);
+            scheduler.runUntilIdle();
+        }
+        assertThat(elevatorController.getElevatorsPositions()).containsOnly(0);
+
+        scheduler.advance(TimeUnit.DAYS.toMillis(1) - scheduler.currentTimeMillis());
+        assertThat(elevatorController.parkIdleElevators()).isEqualTo(1);
+        scheduler.runUntilIdle();
+        assertThat(elevatorController.getElevatorsPositions()).containsExactlyInAnyOrder(0, 15);
+        assertThat(elevatorController.parkIdleElevators()).isZero();
+    }
+}
@@ -0,0 +1,53 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Used to test {@link PlannedStops}
+ */
+public class PlannedStopsTest {
+
+    @Test
+    void planAndRemoveStopsTest() {
+        PlannedStops stops = PlannedStops.none(200)
+                .with(3, Direction.UP)
+                .with(70, Direction.DOWN)
+                .with(70, Direction.UP)
+                .with(150, Direction.DOWN);
+
+        assertThat(stops.at(3)).isEqualTo(Direction.UP);
+        assertThat(stops.at(70)).isEqualTo(Direction.BOTH);
+        assertThat(stops.at(150)).isEqualTo(Direction.DOWN);
+        assertThat(stops.at(199)).isEqualTo(Direction.NONE);
+
+        PlannedStops served = stops.without(70, Direction.UP);
+        assertThat(served.at(70)).isEqualTo(Direction.DOWN);
+        assertThat(served.without(70, Direction.DOWN).at(70)).isEqualTo(Direction.NONE);
+        assertThat(stops.at(70)).isEqualTo(Direction.BOTH);
+    }
+
+    @Test
+    void findStopsAcrossWordsTest() {
+        PlannedStops stops = PlannedStops.none(1000)
+                .with(5, Direction.DOWN)
+                .with(63, Direction.UP)
+                .with(64, Direction.UP)
+                .with(640, Direction.DOWN)
+                .with(999, Direction.UP)
+                .with(999, Direction.DOWN);
+
+        assertThat(stops.lowest(Direction.UP)).isEqualTo(63);
+        assertThat(stops.highest(Direction.UP)).isEqualTo(64);
+        assertThat(stops.lowest(Direction.DOWN)).isEqualTo(5);
+        assertThat(stops.highest(Direction.DOWN)).isEqualTo(640);
+        assertThat(stops.highest(Direction.BOTH)).isEqualTo(999);
+        assertThat(stops.contains(Direction.BOTH)).isTrue();
+        assertThat(PlannedStops.none(1000).contains(Direction.UP)).isFalse();
+        assertThat(PlannedStops.none(1000).highest(Direction.DOWN)).isEqualTo(-1);
+        assertThat(PlannedStops.none(70).highest(Direction.NONE)).isEqualTo(69);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test classes {@link TrafficLog} and {@link TrafficReplay}
+ */
+public class TrafficReplayTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replayRecordedTrafficTest() throws Exception {
+        Path file = directory.resolve("traffic.log");
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            writer.installed(1_000, 2, 10);
+            writer.called(1_000, 5, CallingDirection.UP);
+            writer.called(1_500, 9, CallingDirection.DOWN);
+            writer.addressed(10_000, 0, 8);
+        }
+        List<TrafficLog.Entry> entries = TrafficLog.read(file);
+        assertThat(entries).extracting(TrafficLog.Entry::getAtMillis).containsExactly(0L, 0L, 500L, 9000L);
+
+        TrafficReport report = new TrafficReplay(TrafficReplay.AS_FAST_AS_POSSIBLE).replay(entries);
+        assertThat(report.getCalls()).isEqualTo(3);
+        assertThat(report.getWaitTimes().getCount()).isEqualTo(2);
+        assertThat(report.getWaitTimes().getUnserved()).isZero();
+        assertThat(report.getWaitTimes().getPercentile(50))
+                .isEqualTo(SimulationScheduler.DEFAULT_TICK_MILLIS + 4 * ElevatorImpl.FLOOR_TRAVEL_MILLIS);
+        assertThat(report.getWaitTimes().getMax())
+                .isEqualTo(SimulationScheduler.DEFAULT_TICK_MILLIS + 8 * ElevatorImpl.FLOOR_TRAVEL_MILLIS);
+        assertThat(report.getTripTimes().getCount()).isEqualTo(1);
+        assertThat(report.getTripTimes().getMax()).isEqualTo(SimulationScheduler.DEFAULT_TICK_MILLIS);
+        assertThat(report.getSimulatedMillis()).isGreaterThanOrEqualTo(9000);
+
+        TrafficReport pacedReport = new TrafficReplay(100).replay(entries);
+        assertThat(pacedReport.getWaitTimes().getMean()).isEqualTo(report.getWaitTimes().getMean());
+        assertThat(pacedReport.getWallMillis()).isGreaterThanOrEqualTo(9000 / 100);
+    }
+
+    @Test
+    public void replayDestinationCallsTest() throws Exception {
+        Path file = directory.resolve("destinations.log");
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            writer.installed(0, 2, 20);
+            for (int floor = 10; floor < 18; floor++) writer.destinationCalled(100, 0, floor);
+            for (int floor = 2; floor < 6; floor++) writer.destinationCalled(200, 0, floor);
+        }
+
+        TrafficReport report = new TrafficReplay(TrafficReplay.AS_FAST_AS_POSSIBLE).replay(TrafficLog.read(file));
+        assertThat(report.getCalls()).isEqualTo(12);
+        assertThat(report.getWaitTimes().getCount()).isEqualTo(12);
+        assertThat(report.getTripTimes().getCount()).isEqualTo(12);
+        assertThat(report.getTripTimes().getUnserved()).isZero();
+    }
+
+    @Test
+    public void replayZonedTrafficTest() throws Exception {
+        Path file = directory.resolve("zones.log");
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            writer.installed(0, 20, Arrays.asList(new ElevatorZone(1, 1, 9, true),
+                    new ElevatorZone(1, 10, 19, false)));
+            writer.destinationCalled(100, 0, 15);
+            writer.called(100, 15, CallingDirection.DOWN);
+        }
+        List<TrafficLog.Entry> entries = TrafficLog.read(file);
+        assertThat(entries).extracting(TrafficLog.Entry::getType).containsExactly(TrafficLog.INSTALL, TrafficLog.ZONE,
+                TrafficLog.ZONE, TrafficLog.DESTINATION, TrafficLog.CALL);
+        assertThat(entries.get(2).getZone()).isEqualToComparingFieldByField(new ElevatorZone(1, 10, 19, false));
+
+        TrafficReport report = new TrafficReplay(TrafficReplay.AS_FAST_AS_POSSIBLE).replay(entries);
+        assertThat(report.getCalls()).isEqualTo(2);
+        assertThat(report.getWaitTimes().getCount()).isEqualTo(1);
+    }
+}
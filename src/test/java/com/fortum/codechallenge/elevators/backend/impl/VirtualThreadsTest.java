@@ -0,0 +1,28 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test used to test class {@link VirtualThreads}
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void virtualThreadsAreCreatedOnlyWhereSupportedTest() throws Exception {
+        assertThat(VirtualThreads.isSupported()).isEqualTo(Runtime.version().feature() >= 21);
+        if (!VirtualThreads.isSupported()) {
+            assertThatThrownBy(() -> VirtualThreads.factory("test-")).isInstanceOf(IllegalStateException.class);
+            return;
+        }
+        ExecutorService executor = VirtualThreads.perTaskExecutor("test-");
+        String name = executor.submit(() -> Thread.currentThread().getName()).get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(name).startsWith("test-");
+    }
+}
@@ -0,0 +1,64 @@
+package com.fortum.codechallenge.elevators.backend.impl;
+
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link WhatIfSimulation}
+ */
+public class WhatIfSimulationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void compareStrategiesStartingFromRunningElevatorsTest() throws Exception {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(4, 30);
+        elevatorController.requestElevator(20, Direction.DOWN);
+        elevatorController.chooseDestinationFloorWhenInside(0, 12);
+        scheduler.advance(3_000);
+        List<Integer> positions = elevatorController.getElevatorsPositions();
+
+        Path file = directory.resolve("traffic.log");
+        Random random = new Random(11);
+        try (TrafficLog.Writer writer = new TrafficLog.Writer(file)) {
+            for (int call = 0; call < 200; call++) {
+                writer.called(call * 1_500L, random.nextInt(30),
+                        random.nextBoolean() ? CallingDirection.UP : CallingDirection.DOWN);
+            }
+        }
+        Map<String, DispatchStrategy> candidates = new LinkedHashMap<>();
+        candidates.put("heuristic", new HeuristicDispatchStrategy());
+        candidates.put("eta", new EtaDispatchStrategy());
+        candidates.put("heuristic again", new HeuristicDispatchStrategy());
+
+        Map<String, TrafficReport> reports = new WhatIfSimulation(new ForkJoinPool(3), 100)
+                .compare(elevatorController, TrafficLog.read(file), candidates);
+
+        assertThat(reports).containsOnlyKeys("heuristic", "eta", "heuristic again");
+        for (TrafficReport report : reports.values()) {
+            assertThat(report.getCalls()).isEqualTo(200);
+            assertThat(report.getWaitTimes().getCount() + report.getWaitTimes().getUnserved()).isEqualTo(200);
+            assertThat(report.getFloorsTravelled()).isPositive();
+        }
+        TrafficReport heuristic = reports.get("heuristic");
+        TrafficReport heuristicAgain = reports.get("heuristic again");
+        assertThat(heuristicAgain.getWaitTimes().getMean()).isEqualTo(heuristic.getWaitTimes().getMean());
+        assertThat(heuristicAgain.getFloorsTravelled()).isEqualTo(heuristic.getFloorsTravelled());
+        assertThat(heuristicAgain.getStops()).isEqualTo(heuristic.getStops());
+        assertThat(elevatorController.getElevatorsPositions()).isEqualTo(positions);
+    }
+}
@@ -1,16 +1,23 @@
 package com.fortum.codechallenge.elevators.backend.resources;
 
+import com.fortum.codechallenge.elevators.backend.api.CallingDirection;
 import com.fortum.codechallenge.elevators.backend.api.Direction;
 import com.fortum.codechallenge.elevators.backend.api.ElevatorController;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import com.fortum.codechallenge.elevators.backend.api.HallCall;
+import com.fortum.codechallenge.elevators.backend.api.Status;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +38,15 @@ public class ElevatorControllerEndPointsTest {
     @MockBean
     private SimpMessagingTemplate template;
 
+    @MockBean
+    private ElevatorUpdatesStream updatesStream;
+
+    @MockBean
+    private PositionsBroadcaster positionsBroadcaster;
+
+    @MockBean
+    private TrafficRecorder trafficRecorder;
+
 
     @Test
     public void addressElevatorTest() {
@@ -93,5 +109,36 @@ public class ElevatorControllerEndPointsTest {
                 .expectBody(int.class).isEqualTo(-1);
     }
 
+    @Test
+    public void callElevatorsTest() {
+        //given
+        Mockito.when(elevatorController.requestElevators(Mockito.anyList())).thenReturn(Arrays.asList(2, -1));
+
+        //when... then
+        webClient.post().uri("/api/rest/v1/call/batch")
+                .bodyValue(Arrays.asList(new HallCall(1, CallingDirection.UP), new HallCall(99, CallingDirection.DOWN)))
+                .exchange().expectStatus().isOk()
+                .expectBodyList(Integer.class).isEqualTo(Arrays.asList(2, -1));
+        Mockito.verify(trafficRecorder).called(1, CallingDirection.UP);
+        Mockito.verifyNoMoreInteractions(trafficRecorder);
+    }
+
+    @Test
+    public void streamElevatorUpdatesTest() {
+        //given
+        Mockito.when(updatesStream.updates()).thenReturn(Flux.just(
+                new ElevatorUpdate(0, 0, Direction.NONE, Status.WAIT, 0),
+                new ElevatorUpdate(0, 1, Direction.UP, Status.RUN, 5)));
+
+        //when... then
+        webClient.get().uri("/api/rest/v1/elevators-stream").accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange().expectStatus().isOk()
+                .returnResult(ElevatorUpdate.class).getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(update -> update.getFloor() == 0 && update.getStatus() == Status.WAIT)
+                .expectNextMatches(update -> update.getFloor() == 1 && update.getDirection() == Direction.UP)
+                .verifyComplete();
+    }
+
 
 }
@@ -0,0 +1,75 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.VirtualTimeScheduler;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test used to test class {@link ElevatorUpdatesStream}
+ */
+public class ElevatorUpdatesStreamTest {
+
+    @Test
+    public void slowSubscriberGetsLatestStateOfEveryElevatorTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(3, 10);
+        ElevatorUpdatesStream updatesStream = new ElevatorUpdatesStream(elevatorController);
+
+        StepVerifier.create(updatesStream.updates(), 1)
+                .expectNextMatches(waitingAt(0, 0))
+                .then(() -> {
+                    elevatorController.requestElevator(3, Direction.UP);
+                    elevatorController.requestElevator(7, Direction.DOWN);
+                    scheduler.runUntilIdle();
+                })
+                .thenRequest(2)
+                .expectNextMatches(waitingAt(1, 3))
+                .expectNextMatches(waitingAt(2, 7))
+                .then(() -> elevatorController.requestElevator(5, Direction.UP))
+                .thenRequest(1)
+                .expectNextMatches(update -> update.getStatus() == Status.RUN && update.getAddressedFloor() == 5)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void subscriberGetsUpdatesOfReinstalledElevatorsTest() {
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(2, 20);
+        ElevatorUpdatesStream updatesStream = new ElevatorUpdatesStream(elevatorController);
+        List<ElevatorUpdate> updates = new ArrayList<>();
+        Disposable subscription = updatesStream.changes().subscribe(updates::add);
+
+        elevatorController.requestElevator(15, Direction.UP);
+        scheduler.runUntilIdle();
+        assertThat(updates).last().matches(update -> update.getFloor() == 15 && update.getStatus() == Status.WAIT);
+        updates.clear();
+
+        elevatorController.installElevators(2, 20);
+        elevatorController.requestElevator(3, Direction.UP);
+        scheduler.runUntilIdle();
+        subscription.dispose();
+
+        assertThat(updates).first().matches(update -> update.getFloor() == 0 && update.getStatus() == Status.RUN
+                && update.getAddressedFloor() == 3);
+        assertThat(updates).last().matches(update -> update.getFloor() == 3 && update.getStatus() == Status.WAIT);
+    }
+
+    private static Predicate<ElevatorUpdate> waitingAt(int elevatorId, int floor) {
+        return update -> update.getId() == elevatorId && update.getFloor() == floor
+                && update.getStatus() == Status.WAIT;
+    }
+}
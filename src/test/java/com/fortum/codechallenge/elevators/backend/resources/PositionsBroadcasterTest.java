@@ -0,0 +1,54 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorControllerImpl;
+import com.fortum.codechallenge.elevators.backend.impl.ElevatorEventPipeline;
+import com.fortum.codechallenge.elevators.backend.impl.VirtualTimeScheduler;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Used to test {@link PositionsBroadcaster}
+ */
+public class PositionsBroadcasterTest {
+
+    @Test
+    public void pushOnlyChangedPositionsTest() {
+        //given
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        ElevatorControllerImpl elevatorController = new ElevatorControllerImpl(scheduler);
+        elevatorController.installElevators(3, 10);
+        SimpMessagingTemplate template = Mockito.mock(SimpMessagingTemplate.class);
+        ScheduledExecutorService executor = Mockito.mock(ScheduledExecutorService.class);
+        ElevatorEventPipeline events = new ElevatorEventPipeline(scheduler::currentTimeMillis, Runnable::run, 16, 4);
+        elevatorController.attachEvents(events);
+        PositionsBroadcaster broadcaster = new PositionsBroadcaster(elevatorController, events, template, executor,
+                50);
+
+        //when... then
+        broadcaster.flush();
+        Mockito.verifyNoInteractions(template);
+
+        elevatorController.requestElevator(1, Direction.UP);
+        scheduler.advance(100);
+        elevatorController.requestElevator(2, Direction.UP);
+        scheduler.advance(100);
+        Mockito.verify(executor, Mockito.times(1)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+        broadcaster.flush();
+        Mockito.verify(template).convertAndSend(PositionsBroadcaster.POSITIONS_DESTINATION,
+                Collections.singletonMap(1, 1));
+        broadcaster.flush();
+        Mockito.verifyNoMoreInteractions(template);
+    }
+
+}
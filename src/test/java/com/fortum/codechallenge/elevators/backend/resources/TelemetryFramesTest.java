@@ -0,0 +1,43 @@
+package com.fortum.codechallenge.elevators.backend.resources;
+
+import com.fortum.codechallenge.elevators.backend.api.Direction;
+import com.fortum.codechallenge.elevators.backend.api.ElevatorUpdate;
+import com.fortum.codechallenge.elevators.backend.api.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Used to test {@link TelemetryFrames}
+ */
+public class TelemetryFramesTest {
+
+    @Test
+    public void encodeFrameTest() {
+        ByteBuffer frame = TelemetryFrames.encode(TelemetryFrames.DELTA, Arrays.asList(
+                new ElevatorUpdate(3, 7, Direction.UP, Status.RUN, 450),
+                new ElevatorUpdate(12, 0, Direction.NONE, Status.WAIT, 0)));
+
+        assertThat(frame.remaining()).isEqualTo(TelemetryFrames.HEADER_BYTES + 2 * TelemetryFrames.RECORD_BYTES);
+        assertThat(frame.get()).isEqualTo(TelemetryFrames.VERSION);
+        assertThat(frame.get()).isEqualTo(TelemetryFrames.DELTA);
+        assertThat(frame.getInt()).isEqualTo(2);
+
+        assertThat(frame.getInt()).isEqualTo(3);
+        assertThat(Short.toUnsignedInt(frame.getShort())).isEqualTo(7);
+        assertThat(Direction.values()[frame.get()]).isEqualTo(Direction.UP);
+        assertThat(Status.values()[frame.get()]).isEqualTo(Status.RUN);
+        assertThat(Short.toUnsignedInt(frame.getShort())).isEqualTo(450);
+
+        assertThat(frame.getInt()).isEqualTo(12);
+        assertThat(Short.toUnsignedInt(frame.getShort())).isEqualTo(0);
+        assertThat(Direction.values()[frame.get()]).isEqualTo(Direction.NONE);
+        assertThat(Status.values()[frame.get()]).isEqualTo(Status.WAIT);
+        assertThat(Short.toUnsignedInt(frame.getShort())).isEqualTo(0);
+        assertThat(frame.hasRemaining()).isFalse();
+    }
+
+}